@@ -0,0 +1,28 @@
+plugins {
+    java
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation(project(":lib"))
+    implementation(libs.jmh.core)
+    annotationProcessor(libs.jmh.generator.annprocess)
+}
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(26)
+    }
+}
+
+// ./gradlew :bench:jmh -Pjmh="RopeBenchmark.insert -p size=1048576"
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks."
+    mainClass = "org.openjdk.jmh.Main"
+    classpath = sourceSets.main.get().runtimeClasspath
+    args(providers.gradleProperty("jmh").map { it.split(" ") }.getOrElse(emptyList()))
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope.bench;
+
+import com.mammb.code.rope.Rope;
+import com.mammb.code.rope.RopeBuilder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bulk construction of a rope: the constructor (chunk and fold pairs) versus
+ * the bottom-up builder and the parallel {@code Rope.of}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BuildBenchmark {
+
+    @Param({ "1048576", "104857600", "524288000" })
+    int size;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = Texts.of(size);
+    }
+
+    @Benchmark
+    public Rope constructor() {
+        return new Rope(text);
+    }
+
+    @Benchmark
+    public Rope builder() {
+        // appended in pieces, as read from a stream
+        RopeBuilder builder = Rope.builder();
+        for (int i = 0; i < text.length(); i += 8192) {
+            builder.append(text, i, Math.min(i + 8192, text.length()));
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public Rope of() {
+        return Rope.of(text);
+    }
+
+}
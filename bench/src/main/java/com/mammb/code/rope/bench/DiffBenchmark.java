@@ -0,0 +1,69 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope.bench;
+
+import com.mammb.code.rope.Edit;
+import com.mammb.code.rope.Rope;
+import com.mammb.code.rope.RopeHistory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Diff of two versions of a large rope, a few edits apart.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class DiffBenchmark {
+
+    @Param({ "1048576", "104857600" })
+    int size;
+
+    private Rope a;
+    private Rope b;
+
+    @Setup
+    public void setup() {
+        a = Rope.of(Texts.of(size));
+        int mid = size / 2;
+        b = a.insert(mid, "abc").delete(mid + 100, mid + 120);
+    }
+
+    @Benchmark
+    public List<Edit> diff() {
+        return RopeHistory.diff(a, b);
+    }
+
+    @Benchmark
+    public boolean equals() {
+        return a.equals(b);
+    }
+
+}
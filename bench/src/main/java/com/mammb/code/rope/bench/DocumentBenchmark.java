@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope.bench;
+
+import com.mammb.code.rope.Rope;
+import com.mammb.code.rope.RopeDocument;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Read throughput of a shared document under write contention, three readers and one
+ * writer per group, against a rope in a synchronized holder.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class DocumentBenchmark {
+
+    @Param({ "1048576" })
+    int size;
+
+    private RopeDocument document;
+    private Rope locked;
+
+    @Setup
+    public void setup() {
+        Rope rope = Rope.of(Texts.of(size));
+        document = new RopeDocument(rope);
+        locked = rope;
+    }
+
+    @Benchmark
+    @Group("document")
+    @GroupThreads(3)
+    public char documentRead() {
+        Rope rope = document.snapshot();
+        return rope.charAt(ThreadLocalRandom.current().nextInt(rope.length()));
+    }
+
+    @Benchmark
+    @Group("document")
+    @GroupThreads(1)
+    public Rope documentWrite() {
+        return document.update(this::edit);
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(3)
+    public char synchronizedRead() {
+        synchronized (this) {
+            return locked.charAt(ThreadLocalRandom.current().nextInt(locked.length()));
+        }
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(1)
+    public Rope synchronizedWrite() {
+        synchronized (this) {
+            return locked = edit(locked);
+        }
+    }
+
+    // insert or delete a char, keeping the length around the initial size
+    private Rope edit(Rope rope) {
+        int index = ThreadLocalRandom.current().nextInt(rope.length());
+        return (rope.length() > size) ? rope.delete(index, index + 1) : rope.insert(index, "x");
+    }
+
+}
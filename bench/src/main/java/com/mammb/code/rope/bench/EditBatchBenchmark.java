@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope.bench;
+
+import com.mammb.code.rope.Edit;
+import com.mammb.code.rope.Rope;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A batch of edits spread over the rope (as a multi-cursor edit or a search and replace),
+ * applied one by one versus in a single pass with {@code Rope.apply}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EditBatchBenchmark {
+
+    @Param({ "1048576" })
+    int size;
+
+    @Param({ "5000" })
+    int edits;
+
+    private Rope rope;
+    private List<Edit> batch;
+
+    @Setup
+    public void setup() {
+        rope = new Rope(Texts.of(size));
+        var random = new Random(1);
+        batch = new ArrayList<>(edits);
+        int step = size / edits;
+        for (int i = 0; i < edits; i++) {
+            int start = i * step + random.nextInt(step - 16);
+            batch.add(new Edit(start, start + random.nextInt(16), "edit"));
+        }
+    }
+
+    @Benchmark
+    public Rope sequential() {
+        // from the last edit, so the offsets of the earlier ones stay valid
+        Rope result = rope;
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            Edit edit = batch.get(i);
+            result = result.delete(edit.start(), edit.end()).insert(edit.start(), edit.text());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Rope batch() {
+        return rope.apply(batch);
+    }
+
+}
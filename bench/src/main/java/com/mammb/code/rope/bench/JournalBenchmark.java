@@ -0,0 +1,89 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope.bench;
+
+import com.mammb.code.rope.Rope;
+import com.mammb.code.rope.RopeJournal;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sustained edit rates of a journaled document, by the batching interval of the forces.
+ * {@code insert} doesn't wait for the durability, and {@code insertDurable} waits for the
+ * commit of each edit from four threads, which share the forces (group commit).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+
+    @Param({ "0", "1", "10" })
+    int intervalMillis;
+
+    private Path dir;
+    private RopeJournal journal;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("rope-journal");
+        journal = RopeJournal.open(dir, Rope.of(Texts.of(1 << 20)),
+            new RopeJournal.Options(Duration.ofMillis(intervalMillis), 64L << 20));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+        }
+    }
+
+    @Benchmark
+    public Rope insert() {
+        return journal.insert(ThreadLocalRandom.current().nextInt(1 << 20), "abc");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Rope insertDurable() {
+        Rope rope = journal.insert(ThreadLocalRandom.current().nextInt(1 << 20), "abc");
+        journal.commit().join();
+        return rope;
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope.bench;
+
+import com.mammb.code.rope.LeafPolicy;
+import com.mammb.code.rope.Rope;
+import com.mammb.code.rope.TransientRope;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A simulated typing session: single-char inserts at a moving cursor, with backspaces.
+ * Run with {@code -prof gc} to see the allocation rate per keystroke.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeystrokeBenchmark {
+
+    @Param({ "0", "256" })
+    int minLeafSize;
+
+    private Rope rope;
+    private int[] positions;
+    private int next;
+
+    @Setup
+    public void setup() {
+        rope = new Rope(Texts.of(64 * 1024), new LeafPolicy(minLeafSize, 512));
+        positions = Texts.positions(rope.length());
+    }
+
+    @Benchmark
+    public Rope type1000() {
+        Rope edited = rope;
+        int cursor = positions[next++ & (positions.length - 1)];
+        for (int i = 0; i < 1000; i++) {
+            if (i % 10 == 9) {
+                edited = edited.delete(cursor - 1, cursor);
+                cursor--;
+            } else {
+                edited = edited.insert(cursor++, "a");
+            }
+        }
+        return edited;
+    }
+
+    @Benchmark
+    public Rope type1000Transient() {
+        TransientRope edited = rope.toTransient();
+        int cursor = positions[next++ & (positions.length - 1)];
+        for (int i = 0; i < 1000; i++) {
+            if (i % 10 == 9) {
+                edited.delete(cursor - 1, cursor);
+                cursor--;
+            } else {
+                edited.insert(cursor++, "a");
+            }
+        }
+        return edited.freeze();
+    }
+
+}
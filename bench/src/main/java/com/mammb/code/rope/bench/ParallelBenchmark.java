@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope.bench;
+
+import com.mammb.code.rope.Monoid;
+import com.mammb.code.rope.Rope;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scaling of the parallel streams and reductions over a large rope, by the number of
+ * threads of the fork-join pool they run in.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ParallelBenchmark {
+
+    @Param({ "104857600" })
+    int size;
+
+    @Param({ "1", "2", "4", "8" })
+    int threads;
+
+    private static final Monoid<Long> LINES =
+        Monoid.of(0L, chunk -> chunk.chars().filter(c -> c == '\n').count(), Long::sum);
+
+    private Rope rope;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        rope = Rope.of(Texts.of(size));
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long chars() {
+        return pool.submit(() -> rope.chars().parallel().filter(Character::isUpperCase).count()).join();
+    }
+
+    @Benchmark
+    public long chunks() {
+        return pool.submit(() -> rope.chunks().parallel().mapToInt(CharSequence::hashCode).sum()).join();
+    }
+
+    @Benchmark
+    public long reduce() {
+        return pool.submit(() -> rope.reduce(LINES)).join();
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope.bench;
+
+import com.mammb.code.rope.Balance;
+import com.mammb.code.rope.Cursor;
+import com.mammb.code.rope.LeafPolicy;
+import com.mammb.code.rope.Rope;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the rope operations, by document size, leaf size and balancing strategy.
+ * See {@link StringBuilderBenchmark} for the baseline.
+ * Run with {@code -prof gc} for the bytes allocated per operation ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RopeBenchmark {
+
+    @Param({ "1024", "1048576", "104857600" })
+    int size;
+
+    @Param({ "128", "512", "4096" })
+    int leafSize;
+
+    @Param({ "weightBased", "depthBounded", "wide" })
+    String balance;
+
+    private String text;
+    private LeafPolicy policy;
+    private Balance strategy;
+    private Rope rope;
+    private Rope[] pieces;
+    private int[] positions;
+    private int next;
+
+    @Setup
+    public void setup() {
+        text = Texts.of(size);
+        policy = new LeafPolicy(leafSize / 2, leafSize);
+        strategy = Texts.balance(balance);
+        rope = new Rope(text, policy, strategy);
+        pieces = new Rope[64];
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = rope.subSequence(size * i / pieces.length, size * (i + 1) / pieces.length);
+        }
+        positions = Texts.positions(size - 16);
+    }
+
+    private int position() {
+        return positions[next++ & (positions.length - 1)];
+    }
+
+    @Benchmark
+    public Rope construct() {
+        return new Rope(text, policy, strategy);
+    }
+
+    @Benchmark
+    public Rope insertHead() {
+        return rope.insert(0, "abc");
+    }
+
+    @Benchmark
+    public Rope insertTail() {
+        return rope.insert(size, "abc");
+    }
+
+    @Benchmark
+    public Rope insertRandom() {
+        return rope.insert(position(), "abc");
+    }
+
+    @Benchmark
+    public Rope deleteHead() {
+        return rope.delete(0, 16);
+    }
+
+    @Benchmark
+    public Rope deleteTail() {
+        return rope.delete(size - 16, size);
+    }
+
+    @Benchmark
+    public Rope deleteRandom() {
+        int start = position();
+        return rope.delete(start, start + 16);
+    }
+
+    @Benchmark
+    public Rope concat() {
+        Rope concat = new Rope("", policy, strategy);
+        for (Rope piece : pieces) {
+            concat = concat.concat(piece);
+        }
+        return concat;
+    }
+
+    @Benchmark
+    public Rope[] split() {
+        return rope.split(position());
+    }
+
+    @Benchmark
+    public char charAt() {
+        return rope.charAt(position());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String toStringAll() {
+        return rope.toString();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long traverse() {
+        return rope.chars().asLongStream().sum();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long traverseCursor() {
+        long sum = 0;
+        Cursor cursor = rope.cursor(0);
+        while (cursor.hasNext()) {
+            sum += cursor.nextChar();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int traverseChunks() {
+        int[] count = new int[1];
+        rope.forEachChunk(chunk -> count[0] += chunk.length());
+        return count[0];
+    }
+
+}
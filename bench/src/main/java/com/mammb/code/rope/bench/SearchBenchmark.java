@@ -0,0 +1,96 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope.bench;
+
+import com.mammb.code.rope.Rope;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Find in a large rope: the leaf by leaf search versus {@code toString()} and
+ * {@code String.indexOf}, and regex over the rope as a char sequence.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    @Param({ "1048576", "104857600" })
+    int size;
+
+    private static final String NEEDLE = "The quick brown cat";
+    private static final Pattern REGEX = Pattern.compile("quick \\w+ cat");
+
+    private Rope rope;
+
+    @Setup
+    public void setup() {
+        // a single match near the end
+        String text = Texts.of(size);
+        rope = Rope.of(text).insert(size - 100, NEEDLE);
+    }
+
+    @Benchmark
+    public int toStringIndexOf() {
+        return rope.toString().indexOf(NEEDLE);
+    }
+
+    @Benchmark
+    public int indexOf() {
+        return rope.indexOf(NEEDLE);
+    }
+
+    @Benchmark
+    public int lastIndexOf() {
+        return rope.lastIndexOf("The lazy");
+    }
+
+    @Benchmark
+    public long findAll() {
+        return rope.findAll("fox").count();
+    }
+
+    @Benchmark
+    public long findAllParallel() {
+        return rope.findAllParallel("fox").count();
+    }
+
+    @Benchmark
+    public boolean regexCharSequence() {
+        // charAt walks the tree from the root per char
+        return REGEX.matcher(rope).find();
+    }
+
+    @Benchmark
+    public boolean regexMatcher() {
+        return rope.matcher(REGEX).find();
+    }
+
+}
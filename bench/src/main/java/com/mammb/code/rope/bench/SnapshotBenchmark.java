@@ -0,0 +1,101 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope.bench;
+
+import com.mammb.code.rope.Rope;
+import com.mammb.code.rope.RopeSnapshot;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Restoring a document from a snapshot versus rebuilding it from the plain text.
+ * Run with {@code -prof gc} to compare the heap allocated per restore
+ * ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+    @Param({ "1048576", "104857600" })
+    int size;
+
+    private Path text;
+    private Path snapshot;
+
+    @Setup
+    public void setup() throws IOException {
+        String str = Texts.of(size);
+        text = Files.createTempFile("rope", ".txt");
+        Files.writeString(text, str, StandardCharsets.UTF_8);
+        snapshot = Files.createTempFile("rope", ".snapshot");
+        RopeSnapshot.write(snapshot, List.of(Rope.of(str)));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(text);
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public Rope restore() throws IOException {
+        return RopeSnapshot.read(snapshot).get(0);
+    }
+
+    @Benchmark
+    public Rope rebuild() throws IOException {
+        return Rope.of(Files.readString(text, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public Rope open() throws IOException {
+        // mapped too, but decodes the whole file to count the metrics
+        return Rope.open(text, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int restoreAndRead() throws IOException {
+        // a run of chars and a line lookup in the middle, touching a few leaves only
+        Rope rope = RopeSnapshot.read(snapshot).get(0);
+        int from = rope.length() / 2;
+        int sum = 0;
+        for (int i = from; i < Math.min(from + 4096, rope.length()); i++) {
+            sum += rope.charAt(i);
+        }
+        return sum + rope.lineStart(rope.lineAt(from));
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link StringBuilder} baseline of {@link RopeBenchmark}.
+ * As a StringBuilder is mutable, each insert is undone by a delete (and vice versa)
+ * to keep the document size, so those numbers are for the pair of operations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class StringBuilderBenchmark {
+
+    @Param({ "1024", "1048576", "104857600" })
+    int size;
+
+    private String text;
+    private StringBuilder sb;
+    private String[] pieces;
+    private int[] positions;
+    private int next;
+
+    @Setup
+    public void setup() {
+        text = Texts.of(size);
+        sb = new StringBuilder(text);
+        pieces = new String[64];
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = text.substring(size * i / pieces.length, size * (i + 1) / pieces.length);
+        }
+        positions = Texts.positions(size - 16);
+    }
+
+    private int position() {
+        return positions[next++ & (positions.length - 1)];
+    }
+
+    @Benchmark
+    public StringBuilder construct() {
+        return new StringBuilder(text);
+    }
+
+    @Benchmark
+    public StringBuilder insertHead() {
+        return sb.insert(0, "abc").delete(0, 3);
+    }
+
+    @Benchmark
+    public StringBuilder insertTail() {
+        sb.append("abc");
+        sb.setLength(size);
+        return sb;
+    }
+
+    @Benchmark
+    public StringBuilder insertRandom() {
+        int pos = position();
+        return sb.insert(pos, "abc").delete(pos, pos + 3);
+    }
+
+    @Benchmark
+    public StringBuilder deleteHead() {
+        String deleted = sb.substring(0, 16);
+        return sb.delete(0, 16).insert(0, deleted);
+    }
+
+    @Benchmark
+    public StringBuilder deleteTail() {
+        String deleted = sb.substring(size - 16, size);
+        return sb.delete(size - 16, size).append(deleted);
+    }
+
+    @Benchmark
+    public StringBuilder deleteRandom() {
+        int start = position();
+        String deleted = sb.substring(start, start + 16);
+        return sb.delete(start, start + 16).insert(start, deleted);
+    }
+
+    @Benchmark
+    public StringBuilder concat() {
+        StringBuilder concat = new StringBuilder();
+        for (String piece : pieces) {
+            concat.append(piece);
+        }
+        return concat;
+    }
+
+    @Benchmark
+    public String[] split() {
+        int pos = position();
+        return new String[] { sb.substring(0, pos), sb.substring(pos) };
+    }
+
+    @Benchmark
+    public char charAt() {
+        return sb.charAt(position());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String toStringAll() {
+        return sb.toString();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long traverse() {
+        return sb.chars().asLongStream().sum();
+    }
+
+}
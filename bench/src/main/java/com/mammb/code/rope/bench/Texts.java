@@ -0,0 +1,71 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope.bench;
+
+import com.mammb.code.rope.Balance;
+import java.util.Random;
+
+/**
+ * Shared fixtures of the benchmarks.
+ */
+final class Texts {
+
+    private static final String LINE = "The quick brown fox jumps over the lazy dog.\n";
+
+    private Texts() { }
+
+    /**
+     * Create a text of lines of the given size.
+     * @param size the size of the text
+     * @return the text
+     */
+    static String of(int size) {
+        StringBuilder sb = new StringBuilder(size);
+        while (sb.length() < size) {
+            sb.append(LINE, 0, Math.min(LINE.length(), size - sb.length()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Create random positions in [0, bound).
+     * @param bound the upper bound (exclusive)
+     * @return the positions, a power of two in length
+     */
+    static int[] positions(int bound) {
+        Random random = new Random(1);
+        int[] positions = new int[1 << 12];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = random.nextInt(bound);
+        }
+        return positions;
+    }
+
+    /**
+     * Get the balancing strategy by name.
+     * @param name the name of the strategy
+     * @return the strategy
+     */
+    static Balance balance(String name) {
+        return switch (name) {
+            case "weightBased"  -> Balance.weightBased();
+            case "depthBounded" -> Balance.depthBounded();
+            case "wide"         -> Balance.wide(16);
+            default -> throw new IllegalArgumentException(name);
+        };
+    }
+
+}
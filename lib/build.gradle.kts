@@ -8,6 +8,7 @@ repositories {
 
 dependencies {
     testImplementation(libs.junit.jupiter)
+    testImplementation(libs.jol.core)
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
@@ -19,4 +20,6 @@ java {
 
 tasks.named<Test>("test") {
     useJUnitPlatform()
+    // for the object graph walk of the memory report
+    jvmArgs("--add-opens", "java.base/java.lang=ALL-UNNAMED")
 }
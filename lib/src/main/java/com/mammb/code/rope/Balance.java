@@ -16,8 +16,20 @@
 package com.mammb.code.rope;
 
 import com.mammb.code.rope.Node.Branch;
+import com.mammb.code.rope.Node.Leaf;
+import com.mammb.code.rope.Node.Mapped;
+import com.mammb.code.rope.Node.Slice;
+import com.mammb.code.rope.Node.Wide;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
 
-interface Balance {
+/**
+ * The balancing strategy of a rope.
+ */
+public interface Balance {
 
     static Balance empty() { return node -> node; }
 
@@ -87,6 +99,225 @@ interface Balance {
         };
     }
 
+    /**
+     * Depth bounded balancing.
+     * <p>
+     * Branches are joined as in an AVL tree (join-based balancing), where the depths
+     * of the two children of every branch differ by at most one. Joining walks down the
+     * spine of the deeper child to the depth of the other and rotates on the way back,
+     * so the cost is proportional to the depth difference.
+     * <p>
+     * As in the original rope paper by Boehm et al., a node of depth {@code n} is balanced
+     * if its length is at least {@code F(n + 2)}, where {@code F(n)} is the n-th Fibonacci
+     * number. This always holds for joined trees, and a node violating it (built from
+     * unbalanced children) is rebuilt into a perfectly balanced subtree of its leaves.
+     * Either way, the depth of a node is at most {@code log_phi(length) + 1}.
+     */
+    static Balance depthBounded() {
+
+        // FIB[n] is the n-th Fibonacci number, up to the first one exceeding Integer.MAX_VALUE
+        final long[] FIB = new long[48];
+        FIB[1] = 1;
+        for (int i = 2; i < FIB.length; i++) FIB[i] = FIB[i - 1] + FIB[i - 2];
+
+        return node -> {
+            if (node instanceof Branch branch) {
+                Node joined = join(branch.left(), branch.right());
+                int n = joined.depth() + 2;
+                if (n >= FIB.length || joined.totalLength() < FIB[n]) {
+                    return rebuild(joined);
+                }
+                return joined;
+            }
+            return node;
+        };
+    }
+
+    private static Node join(Node left, Node right) {
+        if (left.isEmpty()) return right;
+        if (right.isEmpty()) return left;
+        // other node kinds are joined as they are, and left to the rebuilding fallback
+        if (left.depth() > right.depth() + 1 && left instanceof Branch l) return joinRight(l, right);
+        if (right.depth() > left.depth() + 1 && right instanceof Branch r) return joinLeft(left, r);
+        return new Branch(left, right);
+    }
+
+    private static Node joinRight(Branch left, Node right) {
+        // join into the right spine of the deeper left node
+        Node l = left.left();
+        Node c = left.right();
+        if (c.depth() <= right.depth() + 1 || !(c instanceof Branch cb)) {
+            Node t = new Branch(c, right);
+            if (t.depth() <= l.depth() + 1) return new Branch(l, t);
+            return rotateLeft(new Branch(l, rotateRight(t)));
+        }
+        Node t = joinRight(cb, right);
+        Branch joined = new Branch(l, t);
+        return (t.depth() <= l.depth() + 1) ? joined : rotateLeft(joined);
+    }
+
+    private static Node joinLeft(Node left, Branch right) {
+        // join into the left spine of the deeper right node
+        Node c = right.left();
+        Node r = right.right();
+        if (c.depth() <= left.depth() + 1 || !(c instanceof Branch cb)) {
+            Node t = new Branch(left, c);
+            if (t.depth() <= r.depth() + 1) return new Branch(t, r);
+            return rotateRight(new Branch(rotateLeft((Branch) t), r));
+        }
+        Node t = joinLeft(left, cb);
+        Branch joined = new Branch(t, r);
+        return (t.depth() <= r.depth() + 1) ? joined : rotateRight(joined);
+    }
+
+    /**
+     * Wide (B-tree) balancing.
+     * <p>
+     * Binary branches are replaced by {@link Wide} nodes of up to {@code maxChildren}
+     * children, with all the leaves at the same depth. Joining appends the shallower
+     * node to the spine of the deeper one at its depth, and splits the nodes that
+     * overflow on the way back, as in a B-tree. A node left underfull by a split or
+     * a removal is merged with its sibling when joined, or takes children from it,
+     * so the nodes below the root keep at least {@code (maxChildren + 1) / 2} children.
+     * @param maxChildren the maximum number of children of a node
+     */
+    static Balance wide(int maxChildren) {
+        if (maxChildren < 3) {
+            throw new IllegalArgumentException("maxChildren must be at least 3. " + maxChildren);
+        }
+
+        return new Balance() {
+            @Override
+            public Node apply(Node node) {
+                return switch (node) {
+                    case Branch branch -> join(widen(branch.left()), widen(branch.right()));
+                    default -> node;
+                };
+            }
+
+            private Node widen(Node node) {
+                if (!(node instanceof Branch)) return node;
+
+                // build the wide nodes bottom-up from the leaves, evenly filled
+                List<Node> level = new ArrayList<>(leaves(node));
+                while (level.size() > 1) {
+                    int groups = (level.size() + maxChildren - 1) / maxChildren;
+                    List<Node> next = new ArrayList<>(groups);
+                    for (int g = 0; g < groups; g++) {
+                        int from = level.size() * g / groups;
+                        int to = level.size() * (g + 1) / groups;
+                        next.add(new Wide(level.subList(from, to).toArray(Node[]::new)));
+                    }
+                    level = next;
+                }
+                return level.isEmpty() ? Node.EMPTY : level.get(0);
+            }
+
+            private Node join(Node left, Node right) {
+                if (left.isEmpty()) return right;
+                if (right.isEmpty()) return left;
+                Node[] joined;
+                if (left.depth() > right.depth() && left instanceof Wide l) {
+                    joined = joinRight(l, right);
+                } else if (right.depth() > left.depth() && right instanceof Wide r) {
+                    joined = joinLeft(left, r);
+                } else {
+                    joined = merge(left, right);
+                }
+                return (joined.length == 1) ? joined[0] : new Wide(joined);
+            }
+
+            private Node[] joinRight(Wide left, Node right) {
+                // join into the right spine of the deeper left node
+                Node[] children = left.children();
+                Node last = children[children.length - 1];
+                Node[] tail = (last.depth() > right.depth() && last instanceof Wide w)
+                    ? joinRight(w, right)
+                    : merge(last, right);
+                Node[] nodes = Arrays.copyOf(children, children.length - 1 + tail.length);
+                System.arraycopy(tail, 0, nodes, children.length - 1, tail.length);
+                return pack(nodes);
+            }
+
+            private Node[] joinLeft(Node left, Wide right) {
+                // join into the left spine of the deeper right node
+                Node[] children = right.children();
+                Node first = children[0];
+                Node[] head = (first.depth() > left.depth() && first instanceof Wide w)
+                    ? joinLeft(left, w)
+                    : merge(left, first);
+                Node[] nodes = new Node[head.length + children.length - 1];
+                System.arraycopy(head, 0, nodes, 0, head.length);
+                System.arraycopy(children, 1, nodes, head.length, children.length - 1);
+                return pack(nodes);
+            }
+
+            private Node[] merge(Node left, Node right) {
+                // siblings of the same depth, merged into one node if they fit,
+                // or with their children shared evenly if one of them is underfull
+                if (left instanceof Wide l && right instanceof Wide r && l.depth() == r.depth() &&
+                    (l.children().length + r.children().length <= maxChildren ||
+                        underfull(l) || underfull(r))) {
+                    Node[] nodes = Arrays.copyOf(l.children(), l.children().length + r.children().length);
+                    System.arraycopy(r.children(), 0, nodes, l.children().length, r.children().length);
+                    return pack(nodes);
+                }
+                return new Node[] { left, right };
+            }
+
+            private boolean underfull(Wide node) {
+                return node.children().length < (maxChildren + 1) / 2;
+            }
+
+            private Node[] pack(Node[] nodes) {
+                // split an overflowing node into two halves
+                if (nodes.length <= maxChildren) return new Node[] { new Wide(nodes) };
+                int mid = nodes.length / 2;
+                return new Node[] {
+                    new Wide(Arrays.copyOfRange(nodes, 0, mid)),
+                    new Wide(Arrays.copyOfRange(nodes, mid, nodes.length)) };
+            }
+        };
+    }
+
+    /**
+     * Rebuild the node into a perfectly balanced tree of its non-empty leaves.
+     * @param node the node
+     * @return the rebuilt node
+     */
+    private static Node rebuild(Node node) {
+        List<Node> leaves = leaves(node);
+        return leaves.isEmpty() ? Node.EMPTY : build(leaves, 0, leaves.size());
+    }
+
+    private static List<Node> leaves(Node node) {
+        // collect the non-empty leaves in order, with an explicit stack
+        List<Node> leaves = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            switch (stack.pop()) {
+                case Leaf leaf -> { if (!leaf.isEmpty()) leaves.add(leaf); }
+                case Slice slice -> leaves.add(slice);
+                case Mapped mapped -> leaves.add(mapped);
+                case Branch branch -> {
+                    stack.push(branch.right());
+                    stack.push(branch.left());
+                }
+                case Wide wide -> {
+                    for (int i = wide.children().length - 1; i >= 0; i--) stack.push(wide.children()[i]);
+                }
+            }
+        }
+        return leaves;
+    }
+
+    private static Node build(List<Node> leaves, int from, int to) {
+        if (to - from == 1) return leaves.get(from);
+        int mid = (from + to + 1) >>> 1;
+        return new Branch(build(leaves, from, mid), build(leaves, mid, to));
+    }
+
     /**
      * Rotate right.
      * <pre>
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Encodes the leaves of a tree into a channel, without materializing the text.
+ * <p>
+ * The leaves are encoded one by one through a single encoder into a few direct
+ * buffers, which are written with a gathering write when the channel supports it.
+ * The buffers are taken from a small pool shared by the writers and returned after the
+ * write, so a write allocates no direct memory once the pool is warm.
+ * A surrogate pair split across two leaves is carried over to the next leaf.
+ */
+final class ChannelWriter {
+
+    private static final int BUFFER_SIZE = 32 * 1024;
+    private static final int BUFFER_COUNT = 4;
+    // the buffer sets kept for reuse, more concurrent writes allocate and drop their own
+    private static final Queue<ByteBuffer[]> POOL = new ArrayBlockingQueue<>(4);
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private ByteBuffer[] buffers;
+    private final CharBuffer carry = CharBuffer.allocate(2);
+    private int current;
+    private long written;
+
+    ChannelWriter(WritableByteChannel channel, Charset charset) {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Write the text of the tree.
+     * @param root the root of the tree
+     * @return the number of bytes written
+     */
+    long write(Node root) throws IOException {
+        buffers = acquire();
+        try {
+            LeafCursor leaves = new LeafCursor(root);
+            leaves.seek(0);
+            do {
+                encode(leaves.text(), leaves.offset(), leaves.offset() + leaves.length());
+            } while (leaves.next());
+
+            carry.flip();
+            encode(carry, true);
+            while (encoder.flush(buffers[current]).isOverflow()) {
+                nextBuffer();
+            }
+            drain(current + 1);
+            return written;
+        } finally {
+            release(buffers);
+            buffers = null;
+        }
+    }
+
+    private static ByteBuffer[] acquire() {
+        ByteBuffer[] pooled = POOL.poll();
+        if (pooled != null) return pooled;
+        ByteBuffer[] allocated = new ByteBuffer[BUFFER_COUNT];
+        for (int i = 0; i < allocated.length; i++) {
+            allocated[i] = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        return allocated;
+    }
+
+    private static void release(ByteBuffer[] buffers) {
+        for (ByteBuffer buffer : buffers) buffer.clear();
+        POOL.offer(buffers);
+    }
+
+    private void encode(String text, int from, int to) throws IOException {
+        if (from == to) return;
+        CharBuffer in = CharBuffer.wrap(text, from, to);
+        if (carry.position() > 0) {
+            // complete the surrogate pair left by the previous leaf
+            carry.put(in.get()).flip();
+            encode(carry, false);
+            carry.compact();
+        }
+        encode(in, false);
+        if (in.hasRemaining()) {
+            // an unpaired high surrogate at the end of the leaf
+            carry.put(in);
+        }
+    }
+
+    private void encode(CharBuffer in, boolean endOfInput) throws IOException {
+        for (;;) {
+            CoderResult result = encoder.encode(in, buffers[current], endOfInput);
+            if (result.isOverflow()) {
+                nextBuffer();
+            } else if (result.isUnderflow()) {
+                return;
+            } else {
+                try {
+                    result.throwException();
+                } catch (CharacterCodingException e) {
+                    throw new IOException(e);
+                }
+            }
+        }
+    }
+
+    private void nextBuffer() throws IOException {
+        if (++current == buffers.length) {
+            drain(buffers.length);
+        }
+    }
+
+    private void drain(int count) throws IOException {
+        long remaining = 0;
+        for (int i = 0; i < count; i++) {
+            remaining += buffers[i].flip().remaining();
+        }
+        if (channel instanceof GatheringByteChannel gathering) {
+            while (remaining > 0) {
+                long n = gathering.write(buffers, 0, count);
+                written += n;
+                remaining -= n;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                while (buffers[i].hasRemaining()) {
+                    written += channel.write(buffers[i]);
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            buffers[i].clear();
+        }
+        current = 0;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A spliterator over the chars of a range of a tree, reading leaf by leaf.
+ * It splits at the child boundaries of the tree, which never split a surrogate pair.
+ */
+final class CharSpliterator implements Spliterator.OfInt {
+
+    private final Node root;
+    private final LeafCursor leaves;
+    private final int end;
+    private String text;
+    // the offset in the tree of the first char of the text, and of the end of the leaf
+    private int start;
+    private int limit;
+    private int index;
+
+    CharSpliterator(Node root, int from, int to) {
+        this.root = root;
+        this.leaves = new LeafCursor(root);
+        this.end = to;
+        this.index = from;
+        leaves.seek(from);
+        enter();
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer action) {
+        if (index >= end) return false;
+        if (index >= limit) {
+            leaves.next();
+            enter();
+        }
+        action.accept(text.charAt(index++ - start));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer action) {
+        while (index < end) {
+            if (index >= limit) {
+                leaves.next();
+                enter();
+            }
+            int to = Math.min(end, limit);
+            for (int i = index - start; i < to - start; i++) {
+                action.accept(text.charAt(i));
+            }
+            index = to;
+        }
+    }
+
+    @Override
+    public Spliterator.OfInt trySplit() {
+        int mid = Node.splitOffset(root, index, end);
+        if (mid < 0) return null;
+        Spliterator.OfInt prefix = new CharSpliterator(root, index, mid);
+        index = mid;
+        leaves.seek(mid);
+        enter();
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+
+    private void enter() {
+        text = leaves.text();
+        start = leaves.start() - leaves.offset();
+        limit = leaves.start() + leaves.length();
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import java.nio.CharBuffer;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over the leaf chunks of a range of a tree.
+ * Whole leaves are supplied as they are, and slices and the partially covered leaves
+ * at both ends of the range as {@link CharBuffer} views, without copying.
+ * It splits at the child boundaries of the tree.
+ */
+final class ChunkSpliterator implements Spliterator<CharSequence> {
+
+    private final Node root;
+    private final LeafCursor leaves;
+    private final int end;
+    private int index;
+
+    ChunkSpliterator(Node root, int from, int to) {
+        this.root = root;
+        this.leaves = new LeafCursor(root);
+        this.end = to;
+        this.index = from;
+        leaves.seek(from);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super CharSequence> action) {
+        if (index >= end) return false;
+        if (index >= leaves.start() + leaves.length()) {
+            leaves.next();
+        }
+        int start = leaves.start();
+        int to = Math.min(end, start + leaves.length());
+        if (index == start && to == start + leaves.length()) {
+            action.accept(leaves.chars());
+        } else {
+            int offset = leaves.offset() - start;
+            action.accept(CharBuffer.wrap(leaves.text(), offset + index, offset + to));
+        }
+        index = to;
+        return true;
+    }
+
+    @Override
+    public Spliterator<CharSequence> trySplit() {
+        int mid = Node.splitOffset(root, index, end);
+        if (mid < 0) return null;
+        Spliterator<CharSequence> prefix = new ChunkSpliterator(root, index, mid);
+        index = mid;
+        leaves.seek(mid);
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        // the number of chars, as an upper bound of the number of chunks
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+
+}
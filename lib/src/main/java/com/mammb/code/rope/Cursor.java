@@ -0,0 +1,151 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import java.text.CharacterIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A bidirectional cursor over the chars of a rope.
+ * <p>
+ * Positioning is O(log N), and moving forward or backward is amortized O(1)
+ * without allocation. As a {@link CharacterIterator}, it can be used with
+ * {@link java.text.BreakIterator} and the like.
+ */
+public final class Cursor implements CharacterIterator {
+
+    private final Node root;
+    private final LeafCursor leaves;
+    private String text;
+    // the offset in the tree of the first char of the text, and the range of the leaf
+    private int start;
+    private int from;
+    private int to;
+    private int index;
+
+    Cursor(Node root, int index) {
+        this.root = root;
+        this.leaves = new LeafCursor(root);
+        seek(index);
+    }
+
+    /**
+     * Get whether there is a char at or after the current position.
+     * @return {@code true} if {@link #current()} is a char of the rope
+     */
+    public boolean hasNext() {
+        return index < root.totalLength();
+    }
+
+    /**
+     * Get whether there is a char before the current position.
+     * @return {@code true} if {@link #previous()} moves to a char of the rope
+     */
+    public boolean hasPrevious() {
+        return index > 0;
+    }
+
+    /**
+     * Get the char at the current position and move to the next.
+     * @return the char at the current position
+     */
+    public char nextChar() {
+        if (!hasNext()) throw new NoSuchElementException();
+        char ch = current();
+        index++;
+        return ch;
+    }
+
+    @Override
+    public char first() {
+        return setIndex(0);
+    }
+
+    @Override
+    public char last() {
+        int length = root.totalLength();
+        return setIndex(length == 0 ? 0 : length - 1);
+    }
+
+    @Override
+    public char current() {
+        if (index >= root.totalLength()) return DONE;
+        if (index >= to) {
+            leaves.next();
+            enter();
+        } else if (index < from) {
+            leaves.previous();
+            enter();
+        }
+        return text.charAt(index - start);
+    }
+
+    @Override
+    public char next() {
+        if (index < root.totalLength()) index++;
+        return current();
+    }
+
+    @Override
+    public char previous() {
+        if (index == 0) return DONE;
+        index--;
+        return current();
+    }
+
+    @Override
+    public char setIndex(int position) {
+        if (position < 0 || position > root.totalLength()) {
+            throw new IllegalArgumentException("Invalid index. " + position);
+        }
+        seek(position);
+        return current();
+    }
+
+    @Override
+    public int getBeginIndex() {
+        return 0;
+    }
+
+    @Override
+    public int getEndIndex() {
+        return root.totalLength();
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public Cursor clone() {
+        return new Cursor(root, index);
+    }
+
+    private void seek(int position) {
+        index = position;
+        leaves.seek(position);
+        enter();
+    }
+
+    private void enter() {
+        text = leaves.text();
+        from = leaves.start();
+        to = from + leaves.length();
+        start = from - leaves.offset();
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Computes the changed range between two ropes.
+ * <p>
+ * The common prefix and suffix are found by walking both trees from each end together.
+ * A subtree shared by both at the same offset is skipped by reference without reading
+ * its text, and other subtrees are opened down to the leaves, which are compared by char.
+ * So for versions of a rope, the time is proportional to the changed range and the
+ * depth of the trees, not to the length of the text.
+ * <pre>
+ *   a: |shared|shared|abc|shared|        prefix: 2 shared subtrees + ""
+ *   b: |shared|shared|aXYc|shared|       suffix: 1 shared subtree + "c"
+ *                                        edit:   [13, 14) -> "XY"
+ * </pre>
+ */
+final class Diff {
+
+    private Diff() { }
+
+    /**
+     * Get the edit changing the text of a into the text of b.
+     * @param a the old tree
+     * @param b the new tree
+     * @return the edits, empty or a single replace of the changed range
+     */
+    static List<Edit> of(Node a, Node b) {
+        if (a == b) return List.of();
+        int max = Math.min(a.totalLength(), b.totalLength());
+        int prefix = common(a, b, max, false);
+        int suffix = common(a, b, max - prefix, true);
+        if (prefix + suffix == a.totalLength() && prefix + suffix == b.totalLength()) return List.of();
+        int end = b.totalLength() - suffix;
+        StringBuilder sb = new StringBuilder(end - prefix);
+        new ChunkSpliterator(b, prefix, end).forEachRemaining(sb::append);
+        return List.of(new Edit(prefix, a.totalLength() - suffix, sb.toString()));
+    }
+
+    private static int common(Node a, Node b, int max, boolean backward) {
+        // the length of the common prefix (or suffix if backward), up to the max
+        Deque<Node> xs = new ArrayDeque<>();
+        Deque<Node> ys = new ArrayDeque<>();
+        xs.push(a);
+        ys.push(b);
+        int px = 0;
+        int py = 0;
+        int length = 0;
+        while (length < max && !xs.isEmpty() && !ys.isEmpty()) {
+            Node x = xs.peek();
+            Node y = ys.peek();
+            if (px == 0 && py == 0 && x == y) {
+                // a shared subtree
+                xs.pop();
+                ys.pop();
+                length += x.totalLength();
+            } else if (x.isEmpty()) {
+                xs.pop();
+            } else if (y.isEmpty()) {
+                ys.pop();
+            } else if (x.childCount() > 0 && (y.childCount() == 0 || x.totalLength() >= y.totalLength())) {
+                open(xs, backward);
+            } else if (y.childCount() > 0) {
+                open(ys, backward);
+            } else {
+                // both leaves, compared from the current positions in them
+                String s = Rope.text(x);
+                String t = Rope.text(y);
+                int n = Math.min(Math.min(s.length() - px, t.length() - py), max - length);
+                int k = backward
+                    ? mismatchBackward(s, s.length() - px, t, t.length() - py, n)
+                    : mismatch(s, px, t, py, n);
+                if (k < n) return length + k;
+                length += n;
+                px += n;
+                py += n;
+                if (px == s.length()) {
+                    xs.pop();
+                    px = 0;
+                }
+                if (py == t.length()) {
+                    ys.pop();
+                    py = 0;
+                }
+            }
+        }
+        return Math.min(length, max);
+    }
+
+    private static void open(Deque<Node> stack, boolean backward) {
+        Node node = stack.pop();
+        int n = node.childCount();
+        for (int i = 0; i < n; i++) {
+            // the first child to visit on the top
+            stack.push(node.child(backward ? i : n - 1 - i));
+        }
+    }
+
+    private static int mismatch(String s, int i, String t, int j, int n) {
+        for (int k = 0; k < n; k++) {
+            if (s.charAt(i + k) != t.charAt(j + k)) return k;
+        }
+        return n;
+    }
+
+    private static int mismatchBackward(String s, int i, String t, int j, int n) {
+        // i and j are the ends (exclusive)
+        for (int k = 0; k < n; k++) {
+            if (s.charAt(i - 1 - k) != t.charAt(j - 1 - k)) return k;
+        }
+        return n;
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import java.util.Objects;
+
+/**
+ * An edit of a rope, replacing the range {@code [start, end)} with the text.
+ * An insert has an empty range, and a delete has an empty text.
+ *
+ * @param start the start index of the range (inclusive)
+ * @param end the end index of the range (exclusive)
+ * @param text the text replacing the range
+ * @see Rope#apply(java.util.List)
+ */
+public record Edit(int start, int end, String text) {
+
+    public Edit {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Invalid range. start:" + start + ", end:" + end);
+        }
+        Objects.requireNonNull(text);
+    }
+
+    public static Edit insert(int index, String text) {
+        return new Edit(index, index, text);
+    }
+
+    public static Edit delete(int start, int end) {
+        return new Edit(start, end, "");
+    }
+
+    public static Edit replace(int start, int end, String text) {
+        return new Edit(start, end, text);
+    }
+
+    // this edit with the range moved by the offset.
+    Edit shift(int offset) {
+        return (offset == 0) ? this : new Edit(start + offset, end + offset, text);
+    }
+
+}
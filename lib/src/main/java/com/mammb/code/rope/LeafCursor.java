@@ -0,0 +1,174 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import com.mammb.code.rope.Node.Branch;
+import com.mammb.code.rope.Node.Leaf;
+import com.mammb.code.rope.Node.Mapped;
+import com.mammb.code.rope.Node.Slice;
+import com.mammb.code.rope.Node.Wide;
+import java.nio.CharBuffer;
+
+/**
+ * Walks the leaves of a tree forward and backward.
+ * The path from the root to the current leaf is kept in an explicit stack,
+ * so moving to an adjacent leaf is amortized O(1) and allocates nothing.
+ * The text of a leaf is read in place, as a range of the string holding it: a slice
+ * shares the string of its base, and a mapped region its decoded text.
+ * <pre>
+ *        root          nodes: [root, B, leaf]
+ *       /    \         slots: [0,    1      ]   (child index taken at each level)
+ *      B      C
+ *     / \    / \
+ *    a  leaf d  e       next() -> pops to root, takes slot 1 and descends to d
+ * </pre>
+ */
+final class LeafCursor {
+
+    private final Node[] nodes;
+    private final int[] slots;
+    private int level;
+    private int start;
+
+    LeafCursor(Node root) {
+        this.nodes = new Node[root.depth() + 1];
+        this.slots = new int[root.depth() + 1];
+        this.nodes[0] = root;
+    }
+
+    /**
+     * Move to the leaf containing the offset (the last leaf for the total length).
+     * @param offset the offset in the tree
+     */
+    void seek(int offset) {
+        level = 0;
+        start = 0;
+        while (nodes[level].childCount() > 0) {
+            Node node = nodes[level];
+            int i = switch (node) {
+                case Branch branch -> (offset - start < branch.weight()) ? 0 : 1;
+                case Wide wide -> wide.childAt(offset - start);
+                case Leaf _ -> 0;
+                case Slice _ -> 0;
+                case Mapped _ -> 0;
+            };
+            start += switch (node) {
+                case Branch branch -> (i == 0) ? 0 : branch.weight();
+                case Wide wide -> wide.offsets()[i];
+                case Leaf _ -> 0;
+                case Slice _ -> 0;
+                case Mapped _ -> 0;
+            };
+            slots[level] = i;
+            nodes[++level] = node.child(i);
+        }
+    }
+
+    /**
+     * Get the string holding the text of the current leaf, from {@link #offset()}
+     * for {@link #length()} chars.
+     * @return the string holding the text of the current leaf
+     */
+    String text() {
+        return switch (nodes[level]) {
+            case Leaf leaf -> leaf.text();
+            case Slice slice -> slice.base();
+            case Mapped mapped -> mapped.decode().text();
+            default -> throw new IllegalStateException();
+        };
+    }
+
+    /**
+     * Get the index of the text of the current leaf in {@link #text()}.
+     * @return the index of the text of the current leaf
+     */
+    int offset() {
+        return (nodes[level] instanceof Slice slice) ? slice.offset() : 0;
+    }
+
+    /**
+     * Get the length of the current leaf.
+     * @return the length of the current leaf
+     */
+    int length() {
+        return nodes[level].totalLength();
+    }
+
+    /**
+     * Get the text of the current leaf, as a view of the string holding it
+     * unless it is the whole string.
+     * @return the text of the current leaf
+     */
+    CharSequence chars() {
+        String text = text();
+        int offset = offset();
+        int length = length();
+        return (offset == 0 && length == text.length()) ? text : CharBuffer.wrap(text, offset, offset + length);
+    }
+
+    /**
+     * Get the offset of the current leaf in the tree.
+     * @return the offset of the current leaf
+     */
+    int start() {
+        return start;
+    }
+
+    /**
+     * Move to the next non-empty leaf.
+     * @return {@code false} if there is no next leaf
+     */
+    boolean next() {
+        do {
+            int l = level;
+            while (l > 0 && slots[l - 1] + 1 >= nodes[l - 1].childCount()) l--;
+            if (l == 0) return false;
+            start += nodes[level].totalLength();
+            nodes[l] = nodes[l - 1].child(++slots[l - 1]);
+            // descend to the leftmost leaf
+            while (nodes[l].childCount() > 0) {
+                slots[l] = 0;
+                nodes[l + 1] = nodes[l].child(0);
+                l++;
+            }
+            level = l;
+        } while (nodes[level].isEmpty());
+        return true;
+    }
+
+    /**
+     * Move to the previous non-empty leaf.
+     * @return {@code false} if there is no previous leaf
+     */
+    boolean previous() {
+        do {
+            int l = level;
+            while (l > 0 && slots[l - 1] == 0) l--;
+            if (l == 0) return false;
+            nodes[l] = nodes[l - 1].child(--slots[l - 1]);
+            // descend to the rightmost leaf
+            while (nodes[l].childCount() > 0) {
+                slots[l] = nodes[l].childCount() - 1;
+                nodes[l + 1] = nodes[l].child(slots[l]);
+                l++;
+            }
+            level = l;
+            start -= nodes[level].totalLength();
+        } while (nodes[level].isEmpty());
+        return true;
+    }
+
+}
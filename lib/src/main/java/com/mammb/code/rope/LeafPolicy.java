@@ -0,0 +1,43 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+/**
+ * The leaf size policy of a rope.
+ * <p>
+ * Text is chunked into leaves of at most {@code maxSize} chars.
+ * Small inserts are spliced into the target leaf while it has room, and
+ * two adjacent leaves are merged on concatenation when one of them is
+ * shorter than {@code minSize} and the result still fits in {@code maxSize}.
+ *
+ * @param minSize the size below which a leaf is merged with its neighbour ({@code 0} disables merging)
+ * @param maxSize the maximum size of a leaf
+ */
+public record LeafPolicy(int minSize, int maxSize) {
+
+    public static final LeafPolicy DEFAULT = new LeafPolicy(256, 512);
+
+    public LeafPolicy {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid leaf size. min:" + minSize + ", max:" + maxSize);
+        }
+    }
+
+    boolean shouldMerge(int leftSize, int rightSize) {
+        return (leftSize < minSize || rightSize < minSize) && leftSize + rightSize <= maxSize;
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+/**
+ * A char sequence view of a rope for sequential scanners like regex matchers.
+ * <p>
+ * The chars are read through a leaf cursor, so reading near the previous index is
+ * amortized O(1) instead of a walk from the root per char. Not thread-safe.
+ */
+final class LeafSequence implements CharSequence {
+
+    private final Rope rope;
+    private final LeafCursor leaves;
+    private String text = "";
+    // the offset in the tree of the first char of the text, and the range of the leaf
+    private int start;
+    private int from;
+    private int to;
+
+    LeafSequence(Rope rope) {
+        this.rope = rope;
+        this.leaves = new LeafCursor(rope.root());
+    }
+
+    @Override
+    public int length() {
+        return rope.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < from || index >= to) {
+            if (index < 0 || index >= rope.length()) throw new IndexOutOfBoundsException(index);
+            // the adjacent leaf, or a seek for a jump
+            if (index == to && leaves.next()) {
+                enter();
+            } else if (index == from - 1 && leaves.previous()) {
+                enter();
+            } else {
+                leaves.seek(index);
+                enter();
+            }
+        }
+        return text.charAt(index - start);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return rope.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return rope.toString();
+    }
+
+    private void enter() {
+        text = leaves.text();
+        from = leaves.start();
+        to = from + leaves.length();
+        start = from - leaves.offset();
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * A monoid over the text of a rope: the measure of a chunk of text, combined
+ * associatively with the measures of the adjacent chunks.
+ * <p>
+ * As the combination is associative, the chunks can be measured in any grouping,
+ * e.g. by subtree in parallel, and give the same result as the whole text.
+ * <pre>{@code
+ * // the number of line feeds
+ * Monoid<Long> lf = Monoid.of(0L, chunk -> chunk.chars().filter(c -> c == '\n').count(), Long::sum);
+ * long count = rope.reduce(lf);
+ * }</pre>
+ * @param <T> the type of the measure
+ */
+public interface Monoid<T> {
+
+    /**
+     * Get the identity, the measure of the empty text.
+     * @return the identity
+     */
+    T identity();
+
+    /**
+     * Measure a chunk of text.
+     * @param chunk the chunk of text
+     * @return the measure
+     */
+    T measure(CharSequence chunk);
+
+    /**
+     * Combine the measures of two adjacent texts.
+     * @param left the measure of the left text
+     * @param right the measure of the right text
+     * @return the measure of the concatenated text
+     */
+    T combine(T left, T right);
+
+    /**
+     * Create a monoid of the functions.
+     * @param identity the identity
+     * @param measure the function measuring a chunk
+     * @param combine the associative function combining two measures
+     * @param <T> the type of the measure
+     * @return the monoid
+     */
+    static <T> Monoid<T> of(T identity, Function<? super CharSequence, ? extends T> measure, BinaryOperator<T> combine) {
+        Objects.requireNonNull(measure);
+        Objects.requireNonNull(combine);
+        return new Monoid<>() {
+            @Override
+            public T identity() {
+                return identity;
+            }
+
+            @Override
+            public T measure(CharSequence chunk) {
+                return measure.apply(chunk);
+            }
+
+            @Override
+            public T combine(T left, T right) {
+                return combine.apply(left, right);
+            }
+        };
+    }
+
+}
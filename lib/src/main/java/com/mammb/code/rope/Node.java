@@ -15,10 +15,25 @@
  */
 package com.mammb.code.rope;
 
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 import java.util.stream.Gatherers;
 
 /**
@@ -38,34 +53,156 @@ sealed interface Node {
 
     Node EMPTY = new Leaf("");
 
+    // the minimum length of a Latin-1 run kept out of a UTF-16 leaf
+    int MIN_LATIN1_RUN = 128;
+
+    // the base of the digest (odd, so that the powers never vanish mod 2^64)
+    long BASE = 0x9E3779B97F4A7C15L;
+
+    // BASE_POWERS[k] = BASE^(2^k)
+    long[] BASE_POWERS = basePowers();
+
     // total length of the string in the left subtree (or length of the string if it's a leaf).
     int weight();
 
-    // recursively calculate the total length of the string represented by this node.
+    // total length of the string represented by this node.
     int totalLength();
 
+    // height of the subtree rooted at this node (0 for a leaf).
+    int depth();
+
+    // number of line feeds ('\n') in the string represented by this node.
+    int newlines();
+
+    // length of the string encoded in UTF-8 (an unpaired surrogate as '?', as String.getBytes does).
+    long utf8Length();
+
+    // number of code points in the string (an unpaired surrogate counts as one).
+    int codePoints();
+
+    // polynomial digest of the string, composed across concatenation (see digestChars).
+    long digest();
+
+    // number of children (0 for a leaf).
+    int childCount();
+
+    // the i-th child.
+    Node child(int i);
+
     default boolean isEmpty() {
         return totalLength() == 0;
     }
 
+    private static long[] basePowers() {
+        long[] powers = new long[32];
+        powers[0] = BASE;
+        for (int k = 1; k < powers.length; k++) powers[k] = powers[k - 1] * powers[k - 1];
+        return powers;
+    }
+
     static Node of(CharSequence text) {
-        if (text == null || text.isEmpty()) return EMPTY;
+        return of(text, LeafPolicy.DEFAULT.maxSize());
+    }
 
-        int leafSize = 512;
-        if (text.length() <= leafSize) {
-            return new Leaf(text.toString());
-        }
+    static Node of(CharSequence text, int leafSize) {
+        if (text == null || text.isEmpty()) return EMPTY;
 
         List<Node> list = new ArrayList<>();
-        for (int i = 0; i < text.length(); i += leafSize) {
-            var sub = text.subSequence(i, Math.min(i + leafSize, text.length()));
-            list.add(new Leaf(sub.toString()));
+        for (int i = 0; i < text.length(); ) {
+            int end = boundary(text, Math.min(i + leafSize, text.length()));
+            chunk(text, i, end, list::add);
+            i = end;
         }
+        if (list.size() == 1) return list.get(0);
         if (list.size() % 2 != 0) list.add(EMPTY);
 
         return of(list);
     }
 
+    /**
+     * Create the leaves of the range of the text.
+     * Strings store Latin-1 text in one byte per char, and switch the whole string to two
+     * bytes per char for a single char beyond Latin-1. So long Latin-1 runs at the head and
+     * the tail of a chunk are kept in their own leaves, and only the rest is stored in UTF-16.
+     * <pre>
+     *   | abc ... xyz \u3042 abc |   ->   | abc ... xyz | \u3042 abc |
+     *                                  1 byte/char   2 bytes/char
+     * </pre>
+     * @param text the text
+     * @param from the start index of the chunk
+     * @param to the end index of the chunk
+     * @param leaves the consumer of the leaves in order
+     */
+    static void chunk(CharSequence text, int from, int to, Consumer<? super Leaf> leaves) {
+        int head = from;
+        while (head < to && text.charAt(head) <= 0xff) head++;
+        if (head == to) {
+            leaves.accept(new Leaf(text.subSequence(from, to).toString()));
+            return;
+        }
+        int tail = to;
+        while (text.charAt(tail - 1) <= 0xff) tail--;
+        // a run shorter than this saves less than the overhead of a leaf
+        if (head - from < MIN_LATIN1_RUN) head = from;
+        if (to - tail < MIN_LATIN1_RUN) tail = to;
+        if (head > from) leaves.accept(new Leaf(text.subSequence(from, head).toString()));
+        leaves.accept(new Leaf(text.subSequence(head, tail).toString()));
+        if (tail < to) leaves.accept(new Leaf(text.subSequence(tail, to).toString()));
+    }
+
+    /**
+     * Get the leaf boundary at the index, moved past the low surrogate if the index splits
+     * a surrogate pair, so that a pair is never split across leaves.
+     * @param text the text
+     * @param index the index
+     * @return the boundary
+     */
+    static int boundary(CharSequence text, int index) {
+        return splitsPair(text, index) ? index + 1 : index;
+    }
+
+    // whether the index is between the high and low surrogates of a pair.
+    static boolean splitsPair(CharSequence text, int index) {
+        return index > 0 && index < text.length()
+            && Character.isHighSurrogate(text.charAt(index - 1))
+            && Character.isLowSurrogate(text.charAt(index));
+    }
+
+    /**
+     * Get the child boundary nearest to the middle of the range, in the highest node spanning it.
+     * @param node the root node
+     * @param from the start of the range
+     * @param to the end of the range
+     * @return the boundary in {@code (from, to)}, or {@code -1} if the range is in a leaf
+     */
+    static int splitOffset(Node node, int from, int to) {
+        int mid = (from + to) >>> 1;
+        int start = 0;
+        while (node.childCount() > 0) {
+            int best = -1;
+            Node into = null;
+            int intoStart = 0;
+            int offset = start;
+            for (int i = 0; i < node.childCount(); i++) {
+                Node child = node.child(i);
+                if (offset > from && offset < to && (best < 0 || Math.abs(offset - mid) < Math.abs(best - mid))) {
+                    best = offset;
+                }
+                if (from >= offset && from < offset + child.totalLength()) {
+                    into = child;
+                    intoStart = offset;
+                }
+                offset += child.totalLength();
+            }
+            if (best >= 0) return best;
+            if (into == null) return -1;
+            // the range is in a single child
+            node = into;
+            start = intoStart;
+        }
+        return -1;
+    }
+
     static Node of(Collection<Node> nodes) {
         return fold(nodes).stream().findFirst().orElse(EMPTY);
     }
@@ -88,7 +225,12 @@ sealed interface Node {
         return fold(folded);
     }
 
-    record Leaf(String text) implements Node {
+    record Leaf(String text, int newlines, long utf8Length, int codePoints, long digest) implements Node {
+
+        Leaf(String text) {
+            this(text, countNewlines(text), countUtf8Bytes(text, 0, text.length()),
+                Character.codePointCount(text, 0, text.length()), digestChars(text, 0, text.length()));
+        }
 
         @Override
         public int weight() {
@@ -99,19 +241,617 @@ sealed interface Node {
         public int totalLength() {
             return weight();
         }
+
+        @Override
+        public int depth() {
+            return 0;
+        }
+
+        @Override
+        public int childCount() {
+            return 0;
+        }
+
+        @Override
+        public Node child(int i) {
+            throw new IndexOutOfBoundsException(i);
+        }
     }
 
-    record Branch(Node left, Node right, int weight) implements Node {
+    /**
+     * A leaf viewing the range {@code [offset, offset + length)} of the text of a leaf,
+     * so that splitting a leaf shares its text instead of copying it.
+     * <pre>
+     *   | abcdefgh |   split at 3  ->   | abc | defgh |   (slices of the same string)
+     * </pre>
+     * A slice retaining less than a quarter of its base string is copied into a leaf
+     * instead, so that a small slice doesn't keep a large string alive.
+     */
+    record Slice(String base, int offset, int length, int newlines, long utf8Length, int codePoints,
+            long digest) implements Node {
 
-        Branch(Node left, Node right) {
-            this(left, right, left.totalLength());
+        @Override
+        public int weight() {
+            return length;
+        }
+
+        @Override
+        public int totalLength() {
+            return length;
+        }
+
+        @Override
+        public int depth() {
+            return 0;
+        }
+
+        @Override
+        public int childCount() {
+            return 0;
+        }
+
+        @Override
+        public Node child(int i) {
+            throw new IndexOutOfBoundsException(i);
+        }
+
+        char charAt(int index) {
+            return base.charAt(offset + index);
+        }
+
+        String text() {
+            return base.substring(offset, offset + length);
+        }
+
+        // the text of the slice in a leaf.
+        Leaf decode() {
+            return new Leaf(text(), newlines, utf8Length, codePoints, digest);
+        }
+
+        /**
+         * Split the range of the base string at the index, into slices or copied leaves.
+         * The metrics of the shorter side are counted, and the other side takes the rest of
+         * the metrics of the whole range.
+         * @param base the base string
+         * @param offset the start of the range in the base
+         * @param whole the node of the range, with its metrics
+         * @param index the index in the range, in {@code (0, length)}
+         * @return the nodes on each side of the index
+         */
+        static Node[] split(String base, int offset, Node whole, int index) {
+            int length = whole.totalLength();
+            int mid = offset + index;
+            boolean leftShorter = index <= length - index;
+            int from = leftShorter ? offset : mid;
+            int to = leftShorter ? mid : offset + length;
+            int newlines = countNewlines(base, from, to);
+            long utf8 = countUtf8Bytes(base, from, to);
+            int codePoints = Character.codePointCount(base, from, to);
+            long digest = digestChars(base, from, to);
+
+            Node left, right;
+            if (splitsPair(base, mid)) {
+                // the halves of a pair are counted on their own, so both sides are counted
+                left = of(base, offset, mid);
+                right = of(base, mid, offset + length);
+            } else if (leftShorter) {
+                left = of(base, offset, mid, newlines, utf8, codePoints, digest);
+                // digest = left * B^(length - index) + right
+                right = of(base, mid, offset + length, whole.newlines() - newlines,
+                    whole.utf8Length() - utf8, whole.codePoints() - codePoints,
+                    whole.digest() - digest * power(length - index));
+            } else {
+                left = of(base, offset, mid, whole.newlines() - newlines,
+                    whole.utf8Length() - utf8, whole.codePoints() - codePoints,
+                    (whole.digest() - digest) * inverse(power(length - index)));
+                right = of(base, mid, offset + length, newlines, utf8, codePoints, digest);
+            }
+            return new Node[] { left, right };
+        }
+
+        private static Node of(String base, int from, int to) {
+            return of(base, from, to, countNewlines(base, from, to), countUtf8Bytes(base, from, to),
+                Character.codePointCount(base, from, to), digestChars(base, from, to));
+        }
+
+        private static Node of(String base, int from, int to, int newlines, long utf8Length,
+                int codePoints, long digest) {
+            // copy a small part rather than retaining the whole base
+            if ((to - from) * 4L < base.length()) {
+                return new Leaf(base.substring(from, to), newlines, utf8Length, codePoints, digest);
+            }
+            return new Slice(base, from, to - from, newlines, utf8Length, codePoints, digest);
+        }
+
+        private static int countNewlines(String text, int from, int to) {
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (text.charAt(i) == '\n') count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * A leaf referencing a region of a memory-mapped file, decoded on access.
+     * A region starts and ends on character boundaries, so it decodes on its own.
+     * If {@code latin1}, each byte decodes to the char of the same value, and chars
+     * are read straight from the bytes, as are the chars of a UTF-16 region. Otherwise
+     * the region is decoded at once, and the text is kept softly for the next accesses.
+     */
+    record Mapped(ByteBuffer bytes, Charset charset, int length, int newlines,
+            long utf8Length, int codePoints, long digest, boolean latin1, Decoded decoded) implements Node {
+
+        Mapped(ByteBuffer bytes, Charset charset, int length, int newlines,
+                long utf8Length, int codePoints, long digest, boolean latin1) {
+            this(bytes, charset, length, newlines, utf8Length, codePoints, digest, latin1, new Decoded());
+        }
+
+        // the decoded text of a region, cleared by the GC under memory pressure
+        static final class Decoded {
+            private volatile SoftReference<Leaf> leaf;
+        }
+
+        // the maximum size of a region, in bytes
+        static final int REGION_SIZE = 16 * 1024;
+
+        // the maximum size of a mapping of the file
+        private static final int WINDOW_SIZE = 1 << 30;
+
+        @Override
+        public int weight() {
+            return length;
+        }
+
+        @Override
+        public int totalLength() {
+            return length;
+        }
+
+        @Override
+        public int depth() {
+            return 0;
+        }
+
+        @Override
+        public int childCount() {
+            return 0;
+        }
+
+        @Override
+        public Node child(int i) {
+            throw new IndexOutOfBoundsException(i);
+        }
+
+        char charAt(int index) {
+            if (latin1) return (char) (bytes.get(index) & 0xff);
+            if (charset.equals(StandardCharsets.UTF_16BE)) return bytes.getChar(2 * index);
+            if (charset.equals(StandardCharsets.UTF_16LE)) return Character.reverseBytes(bytes.getChar(2 * index));
+            return decode().text().charAt(index);
+        }
+
+        // the text of the region in a heap leaf.
+        Leaf decode() {
+            SoftReference<Leaf> ref = decoded.leaf;
+            Leaf leaf = (ref == null) ? null : ref.get();
+            if (leaf == null) {
+                leaf = new Leaf(decodeText(), newlines, utf8Length, codePoints, digest);
+                decoded.leaf = new SoftReference<>(leaf);
+            }
+            return leaf;
+        }
+
+        private String decodeText() {
+            if (latin1) {
+                byte[] b = new byte[length];
+                bytes.get(0, b);
+                return new String(b, StandardCharsets.ISO_8859_1);
+            }
+            CharBuffer chars = utf16();
+            return (chars != null) ? chars.toString() : charset.decode(bytes.duplicate()).toString();
+        }
+
+        // the byte offset of the index known without decoding up to it, or -1
+        private int byteOffset(int index) {
+            if (charset.equals(StandardCharsets.UTF_16BE) || charset.equals(StandardCharsets.UTF_16LE)) {
+                return 2 * index;
+            }
+            if (charset.equals(StandardCharsets.UTF_8)) {
+                // the chars map back to the bytes unless a malformed input was replaced
+                String text = decode().text();
+                if (text.indexOf('\uFFFD') < 0) return (int) countUtf8Bytes(text, 0, index);
+            }
+            return -1;
+        }
+
+        // the chars of a UTF-16 region, two bytes each, or null for the other charsets.
+        private CharBuffer utf16() {
+            if (charset.equals(StandardCharsets.UTF_16BE)) {
+                return bytes.duplicate().order(ByteOrder.BIG_ENDIAN).asCharBuffer();
+            } else if (charset.equals(StandardCharsets.UTF_16LE)) {
+                return bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN).asCharBuffer();
+            }
+            return null;
+        }
+
+        // the two regions on each side of the index, or null if the index splits a surrogate pair.
+        Mapped[] split(int index) {
+            int at = index;
+            int leftNewlines = 0;
+            long leftUtf8 = 0;
+            int leftCodePoints = index;
+            long leftDigest = 0;
+            if (latin1) {
+                for (int i = 0; i < index; i++) {
+                    byte b = bytes.get(i);
+                    if (b == '\n') leftNewlines++;
+                    leftUtf8 += (b >= 0) ? 1 : 2;
+                    leftDigest = leftDigest * BASE + (b & 0xff);
+                }
+            } else {
+                CharSequence chars;
+                at = byteOffset(index);
+                if (at >= 0) {
+                    // the chars from the decoded text of the region
+                    String text = decode().text();
+                    if (index > 0 && index < length && Character.isHighSurrogate(text.charAt(index - 1))
+                            && Character.isLowSurrogate(text.charAt(index))) {
+                        return null;
+                    }
+                    chars = CharBuffer.wrap(text, 0, index);
+                } else {
+                    // decode up to the index to find its byte offset
+                    ByteBuffer in = bytes.duplicate();
+                    CharBuffer out = CharBuffer.allocate(index);
+                    decoder(charset).decode(in, out, false);
+                    if (out.hasRemaining()) return null;
+                    at = in.position();
+                    chars = out.flip();
+                }
+                leftNewlines = countNewlines(chars);
+                leftUtf8 = countUtf8Bytes(chars, 0, index);
+                leftCodePoints = Character.codePointCount(chars, 0, index);
+                leftDigest = digestChars(chars, 0, index);
+            }
+            // digest = left * B^(length - index) + right
+            long rightDigest = digest - leftDigest * power(length - index);
+            return new Mapped[] {
+                new Mapped(bytes.slice(0, at), charset, index, leftNewlines, leftUtf8, leftCodePoints,
+                    leftDigest, latin1),
+                new Mapped(bytes.slice(at, bytes.capacity() - at), charset, length - index,
+                    newlines - leftNewlines, utf8Length - leftUtf8, codePoints - leftCodePoints,
+                    rightDigest, latin1) };
+        }
+
+        /**
+         * Scan the file into regions, decoding each once to count its chars and line feeds.
+         * <p>
+         * A byte order mark of UTF-16 or UTF-32 is skipped, and the regions are decoded in the
+         * byte order it selects. A charset with a shift state, such as ISO-2022-JP, cannot
+         * decode a region on its own and is rejected.
+         * @param channel the file channel
+         * @param charset the charset of the file
+         * @return the regions in order
+         * @throws IOException if an I/O error occurs
+         * @throws IllegalArgumentException if the charset is stateful
+         */
+        static List<Node> scan(FileChannel channel, Charset charset) throws IOException {
+            ByteBuffer head = ByteBuffer.allocate(4);
+            channel.read(head, 0);
+            charset = byteOrder(charset, head.flip());
+            if (!stateless(charset)) {
+                throw new IllegalArgumentException("Stateful charset is not supported. " + charset);
+            }
+            CharsetDecoder decoder = decoder(charset);
+            CharBuffer out = CharBuffer.allocate((int) Math.ceil(REGION_SIZE * decoder.maxCharsPerByte()));
+            List<Node> regions = new ArrayList<>();
+            long size = channel.size();
+            long length = 0;
+            MappedByteBuffer window = null;
+            long windowStart = 0;
+            for (long pos = head.position(); pos < size; ) {
+                // map the next window when the region would cross the end of the current one
+                if (window == null || (pos + REGION_SIZE > windowStart + window.capacity()
+                        && windowStart + window.capacity() < size)) {
+                    windowStart = pos;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW_SIZE, size - pos));
+                }
+                int from = (int) (pos - windowStart);
+                int to = Math.min(from + REGION_SIZE, window.capacity());
+                boolean last = windowStart + to == size;
+
+                // the region ends at the last character boundary
+                ByteBuffer in = window.slice(from, to - from);
+                decoder.reset().decode(in, out.clear(), last);
+                if (last) decoder.flush(out);
+                if (in.position() == 0) {
+                    throw new IOException("Undecodable input at " + pos);
+                }
+
+                ByteBuffer bytes = window.slice(from, in.position());
+                int chars = out.position();
+                length += chars;
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException("File too large: " + size + " bytes");
+                }
+                int newlines = 0;
+                for (int i = 0; i < chars; i++) {
+                    if (out.array()[i] == '\n') newlines++;
+                }
+                out.flip();
+                regions.add(new Mapped(bytes, charset, chars, newlines, countUtf8Bytes(out, 0, chars),
+                    Character.codePointCount(out, 0, chars), digestChars(out, 0, chars),
+                    isLatin1(bytes, out.array(), chars)));
+                pos += bytes.capacity();
+            }
+            return regions;
+        }
+
+        // the charset of the byte order selected by the mark at the head, consuming the mark,
+        // for the charsets detecting their byte order
+        private static Charset byteOrder(Charset charset, ByteBuffer head) {
+            String name = charset.name().toUpperCase(Locale.ROOT);
+            boolean utf16 = name.equals("UTF-16") || name.equals("X-UTF-16LE-BOM");
+            boolean utf32 = name.equals("UTF-32") || name.equals("X-UTF-32BE-BOM") || name.equals("X-UTF-32LE-BOM");
+            if (!utf16 && !utf32) return charset;
+            byte[] be = utf16 ? new byte[] { (byte) 0xfe, (byte) 0xff } : new byte[] { 0, 0, (byte) 0xfe, (byte) 0xff };
+            byte[] le = utf16 ? new byte[] { (byte) 0xff, (byte) 0xfe } : new byte[] { (byte) 0xff, (byte) 0xfe, 0, 0 };
+            boolean little = name.contains("LE");
+            if (head.remaining() >= be.length && head.slice(0, be.length).equals(ByteBuffer.wrap(be))) {
+                little = false;
+                head.position(be.length);
+            } else if (head.remaining() >= le.length && head.slice(0, le.length).equals(ByteBuffer.wrap(le))) {
+                little = true;
+                head.position(le.length);
+            }
+            if (utf16) return little ? StandardCharsets.UTF_16LE : StandardCharsets.UTF_16BE;
+            return Charset.forName(little ? "UTF-32LE" : "UTF-32BE");
+        }
+
+        // whether the charset has no shift state, checked as the encoding of a repeated char
+        // being the repeated encoding of the char
+        private static boolean stateless(Charset charset) {
+            if (!charset.canEncode()) return false;
+            CharsetEncoder encoder = charset.newEncoder();
+            for (String str : List.of("\u00e9", "\u0416", "\u3042", "\u4e00", "\uac00")) {
+                if (!encoder.canEncode(str)) continue;
+                ByteBuffer one = charset.encode(str);
+                ByteBuffer twice = ByteBuffer.allocate(2 * one.remaining()).put(one.duplicate()).put(one.duplicate());
+                if (!charset.encode(str + str).equals(twice.flip())) return false;
+            }
+            return true;
+        }
+
+        private static boolean isLatin1(ByteBuffer bytes, char[] chars, int length) {
+            if (bytes.capacity() != length) return false;
+            for (int i = 0; i < length; i++) {
+                if (chars[i] != (bytes.get(i) & 0xff)) return false;
+            }
+            return true;
+        }
+
+        private static CharsetDecoder decoder(Charset charset) {
+            return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+    }
+
+    /**
+     * A wide (B-tree) node with any number of children.
+     * The offsets hold the prefix sums of the children lengths, so the child containing
+     * an index is found by binary search instead of a chain of binary branches.
+     * <pre>
+     *                 Wide [0, 3, 5, 6, 11]        navigate index: 4
+     *          /      /       \       \          (3 <= 4 < 5) go to the child 1 and 4 - 3 -> index: 1
+     *      |abc|    |de|     |f|    |ghijk|       index: 1 -> [e]
+     * </pre>
+     */
+    record Wide(Node[] children, int[] offsets, int depth, int newlines, long utf8Length, int codePoints,
+            long digest) implements Node {
+
+        Wide(Node... children) {
+            this(children, offsetsOf(children), depthOf(children), newlinesOf(children),
+                utf8LengthOf(children), codePointsOf(children), digestOf(children));
+        }
+
+        @Override
+        public int weight() {
+            return offsets[1];
         }
 
         @Override
         public int totalLength() {
-            return left.totalLength() + right.totalLength();
+            return offsets[children.length];
+        }
+
+        @Override
+        public int childCount() {
+            return children.length;
+        }
+
+        @Override
+        public Node child(int i) {
+            return children[i];
+        }
+
+        // the index of the child containing the index (the last child for the total length).
+        int childAt(int index) {
+            int i = Arrays.binarySearch(offsets, 0, children.length, index);
+            return (i >= 0) ? i : -i - 2;
+        }
+
+        // a copy of this node with the i-th child replaced.
+        Wide with(int i, Node child) {
+            Node[] nodes = children.clone();
+            nodes[i] = child;
+            return new Wide(nodes);
+        }
+
+        // the node of the children in the range [from, to).
+        Node range(int from, int to) {
+            return switch (to - from) {
+                case 0 -> EMPTY;
+                case 1 -> children[from];
+                default -> new Wide(Arrays.copyOfRange(children, from, to));
+            };
+        }
+
+        private static int[] offsetsOf(Node[] children) {
+            int[] offsets = new int[children.length + 1];
+            for (int i = 0; i < children.length; i++) {
+                offsets[i + 1] = offsets[i] + children[i].totalLength();
+            }
+            return offsets;
+        }
+
+        private static int depthOf(Node[] children) {
+            int depth = 0;
+            for (Node child : children) depth = Math.max(depth, child.depth());
+            return depth + 1;
+        }
+
+        private static int newlinesOf(Node[] children) {
+            int newlines = 0;
+            for (Node child : children) newlines += child.newlines();
+            return newlines;
+        }
+
+        private static long utf8LengthOf(Node[] children) {
+            long length = 0;
+            for (Node child : children) length += child.utf8Length();
+            return length;
+        }
+
+        private static int codePointsOf(Node[] children) {
+            int codePoints = 0;
+            for (Node child : children) codePoints += child.codePoints();
+            return codePoints;
+        }
+
+        private static long digestOf(Node[] children) {
+            long digest = 0;
+            for (Node child : children) digest = concat(digest, child.digest(), child.totalLength());
+            return digest;
+        }
+    }
+
+    // the total length and depth are computed once from the children, so they are O(1) to read.
+    // the metrics are plain sums, as a surrogate pair is never split across leaves.
+    record Branch(Node left, Node right, int weight, int totalLength, int depth, int newlines,
+            long utf8Length, int codePoints, long digest) implements Node {
+
+        Branch(Node left, Node right) {
+            this(left, right,
+                left.totalLength(),
+                left.totalLength() + right.totalLength(),
+                Math.max(left.depth(), right.depth()) + 1,
+                left.newlines() + right.newlines(),
+                left.utf8Length() + right.utf8Length(),
+                left.codePoints() + right.codePoints(),
+                concat(left.digest(), right.digest(), right.totalLength()));
         }
 
+        @Override
+        public int childCount() {
+            return 2;
+        }
+
+        @Override
+        public Node child(int i) {
+            return switch (i) {
+                case 0 -> left;
+                case 1 -> right;
+                default -> throw new IndexOutOfBoundsException(i);
+            };
+        }
+
+    }
+
+    /**
+     * Get the length of the range of the text encoded in UTF-8.
+     * An unpaired surrogate is counted as the one byte of its replacement '?', as String.getBytes does.
+     * @param text the text
+     * @param from the start index
+     * @param to the end index
+     * @return the length in bytes
+     */
+    static long countUtf8Bytes(CharSequence text, int from, int to) {
+        long length = 0;
+        for (int i = from; i < to; i++) {
+            char ch = text.charAt(i);
+            if (ch < 0x80) {
+                length++;
+            } else if (ch < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(ch) && i + 1 < to && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += Character.isSurrogate(ch) ? 1 : 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Get the polynomial digest of the range of the text,
+     * {@code s[0] B^(n-1) + s[1] B^(n-2) + ... + s[n-1]} (mod 2^64) for a fixed odd base {@code B}.
+     * <p>
+     * The digest of a concatenation is composed from the digests of the parts, so each node
+     * computes its digest from its children in O(1), and an edit rehashes only the new path.
+     * The digest is stable across runs, but is not collision resistant against crafted input.
+     * <pre>
+     *   digest(a + b) = digest(a) * B^|b| + digest(b)
+     * </pre>
+     * The chars are folded in four independent lanes of base {@code B^4}, to keep the
+     * multiplications of the lanes in flight together.
+     * @param text the text
+     * @param from the start index (inclusive)
+     * @param to the end index (exclusive)
+     * @return the digest
+     */
+    static long digestChars(CharSequence text, int from, int to) {
+        long a = 0, b = 0, c = 0, d = 0;
+        int i = from;
+        for (; i + 4 <= to; i += 4) {
+            a = a * BASE_POWERS[2] + text.charAt(i);
+            b = b * BASE_POWERS[2] + text.charAt(i + 1);
+            c = c * BASE_POWERS[2] + text.charAt(i + 2);
+            d = d * BASE_POWERS[2] + text.charAt(i + 3);
+        }
+        long h = ((a * BASE + b) * BASE + c) * BASE + d;
+        for (; i < to; i++) h = h * BASE + text.charAt(i);
+        return h;
+    }
+
+    // the digest of the concatenation of two texts.
+    static long concat(long left, long right, int rightLength) {
+        return left * power(rightLength) + right;
+    }
+
+    // B^n (mod 2^64), by the binary digits of n.
+    static long power(int n) {
+        long p = 1;
+        for (int k = 0; n != 0; k++, n >>>= 1) {
+            if ((n & 1) != 0) p *= BASE_POWERS[k];
+        }
+        return p;
+    }
+
+    // the inverse of an odd number (mod 2^64), by Newton's iteration doubling the correct bits.
+    static long inverse(long a) {
+        long x = a;
+        for (int i = 0; i < 5; i++) x *= 2 - a * x;
+        return x;
+    }
+
+    private static int countNewlines(CharSequence text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') count++;
+        }
+        return count;
     }
 
 }
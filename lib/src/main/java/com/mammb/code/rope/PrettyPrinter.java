@@ -15,47 +15,129 @@
  */
 package com.mammb.code.rope;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 public interface PrettyPrinter {
 
     static String toDot(Rope rope) {
-        return new RopeDotWalker().walk(rope.root());
+        StringWriter out = new StringWriter();
+        try {
+            toDot(rope, out, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Write the tree of the rope in the Graphviz dot format to the writer, as it is walked.
+     * <p>
+     * The nodes deeper than the max depth are not written, and their parent at the max depth
+     * is summarized with its length and depth. The walk uses an explicit stack, so a large
+     * tree is written in a constant memory apart from the stack of the visited path.
+     * @param rope the rope
+     * @param out the writer
+     * @param maxDepth the maximum depth of the nodes written, 0 for the root only
+     * @throws IOException if an I/O error occurs
+     */
+    static void toDot(Rope rope, Writer out, int maxDepth) throws IOException {
+        new RopeDotWalker(out, maxDepth).walk(rope.root());
     }
 
     class RopeDotWalker {
 
-        private final StringBuilder sb = new StringBuilder();
+        private final Writer out;
+        private final int maxDepth;
         private int count = 0;
 
-        private RopeDotWalker() {
-            sb.append("digraph G {\n");
+        // a node to visit, with the id assigned when visited
+        private static final class Visit {
+            final Node node;
+            final String name;
+            final int depth;
+            String id;
+            Visit(Node node, String name, int depth) {
+                this.node = node;
+                this.name = name;
+                this.depth = depth;
+            }
+        }
+
+        // an edge written after the subtree of the child, as the child id is known then
+        private record Edge(String parentId, Visit child) { }
+
+        private RopeDotWalker(Writer out, int maxDepth) {
+            this.out = out;
+            this.maxDepth = maxDepth;
+        }
+
+        private void walk(Node root) throws IOException {
+            out.write("digraph G {\n");
+            Deque<Object> stack = new ArrayDeque<>();
+            stack.push(new Visit(root, "root", 0));
+            while (!stack.isEmpty()) {
+                switch (stack.pop()) {
+                    case Visit visit -> node(visit, stack);
+                    case Edge edge -> out.append("  ").append(edge.parentId()).append(" -> ")
+                        .append(edge.child().id).append(";\n");
+                    default -> throw new IllegalStateException();
+                }
+            }
+            out.write("}\n");
         }
 
-        private String walk(Node node) {
-            node(node, "root");
-            return sb.append("}\n").toString();
+        private void node(Visit visit, Deque<Object> stack) throws IOException {
+            String id = visit.id = "n" + (count++);
+            Node node = visit.node;
+            switch (node) {
+                case Node.Leaf leaf -> label(id, visit.name, leaf.text(), ", shape=box");
+                case Node.Slice slice -> label(id, visit.name, slice.text(), ", shape=box");
+                // the region is not decoded, only its length is shown
+                case Node.Mapped mapped -> label(id, visit.name, "mapped:" + mapped.totalLength(), ", shape=box");
+                case Node.Branch branch -> {
+                    if (visit.depth >= maxDepth) {
+                        summary(id, visit.name, branch);
+                    } else {
+                        label(id, visit.name, String.valueOf(branch.weight()), "");
+                        children(id, new Node[] { branch.left(), branch.right() }, new String[] { "l", "r" },
+                            visit.depth + 1, stack);
+                    }
+                }
+                case Node.Wide wide -> {
+                    if (visit.depth >= maxDepth) {
+                        summary(id, visit.name, wide);
+                    } else {
+                        label(id, visit.name, String.valueOf(wide.totalLength()), "");
+                        String[] names = new String[wide.children().length];
+                        for (int i = 0; i < names.length; i++) names[i] = "c" + i;
+                        children(id, wide.children(), names, visit.depth + 1, stack);
+                    }
+                }
+            }
         }
 
-        private String node(Node node, String name) {
-            return switch (node) {
-                case Node.Leaf leaf -> leaf(leaf, name);
-                case Node.Branch branch -> branch(branch, name);
-            };
+        private void children(String id, Node[] children, String[] names, int depth,
+                Deque<Object> stack) {
+            // pushed in reverse, to pop the first child (then its edge) first
+            for (int i = children.length - 1; i >= 0; i--) {
+                Visit child = new Visit(children[i], names[i], depth);
+                stack.push(new Edge(id, child));
+                stack.push(child);
+            }
         }
 
-        private String branch(Node.Branch branch, String name) {
-            String id = "n" + (count++);
-            sb.append("  ").append(id).append(" [label=\"").append(name).append("\\n").append(branch.weight()).append("\"];\n");
-            String leftId = node(branch.left(), "l");
-            sb.append("  ").append(id).append(" -> ").append(leftId).append(";\n");
-            String rightId = node(branch.right(), "r");
-            sb.append("  ").append(id).append(" -> ").append(rightId).append(";\n");
-            return id;
+        private void summary(String id, String name, Node node) throws IOException {
+            label(id, name, "... length:" + node.totalLength() + " depth:" + node.depth(), ", style=dashed");
         }
 
-        private String leaf(Node.Leaf leaf, String name) {
-            String id = "n" + (count++);
-            sb.append("  ").append(id).append(" [label=\"").append(name).append("\\n").append(leaf.text()).append("\", shape=box];\n");
-            return id;
+        private void label(String id, String name, String text, String attrs) throws IOException {
+            out.append("  ").append(id).append(" [label=\"").append(name).append("\\n")
+                .append(text).append('"').append(attrs).append("];\n");
         }
     }
 
@@ -17,41 +17,143 @@ package com.mammb.code.rope;
 
 import com.mammb.code.rope.Node.Branch;
 import com.mammb.code.rope.Node.Leaf;
+import com.mammb.code.rope.Node.Mapped;
+import com.mammb.code.rope.Node.Slice;
+import com.mammb.code.rope.Node.Wide;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class Rope {
-
-    private static final Rope EMPTY = new Rope("");
-    private static final Balance balance = Balance.weightBased();
+public class Rope implements CharSequence {
 
     private final Node root;
+    private final LeafPolicy policy;
+    private final Balance balance;
 
-    private Rope(Node root) {
+    Rope(Node root, LeafPolicy policy, Balance balance) {
         this.root = (root == null) ? Node.EMPTY : root;
+        this.policy = policy;
+        this.balance = balance;
     }
 
     public Rope() {
-        this.root = Node.EMPTY;
+        this(Node.EMPTY, LeafPolicy.DEFAULT, Balance.weightBased());
     }
 
     public Rope(String text) {
-        this.root = Node.of(text);
+        this(text, LeafPolicy.DEFAULT);
     }
 
     public Rope(CharSequence text) {
-        this.root = Node.of(text);
+        this(text, LeafPolicy.DEFAULT);
+    }
+
+    public Rope(CharSequence text, LeafPolicy policy) {
+        this(text, policy, Balance.weightBased());
+    }
+
+    public Rope(CharSequence text, LeafPolicy policy, Balance balance) {
+        this(balance.apply(Node.of(text, policy.maxSize())), policy, balance);
+    }
+
+    /**
+     * Create a rope of the text, built bottom-up into a balanced tree without padding leaves.
+     * Large texts are built in parallel, so the text must not be modified during the call.
+     * @param text the text
+     * @return the rope
+     */
+    public static Rope of(CharSequence text) {
+        return of(text, LeafPolicy.DEFAULT, Balance.weightBased());
+    }
+
+    /**
+     * Create a rope of the text, built bottom-up into a balanced tree without padding leaves.
+     * Large texts are built in parallel, so the text must not be modified during the call.
+     * @param text the text
+     * @param policy the leaf size policy
+     * @param balance the balancing strategy
+     * @return the rope
+     */
+    public static Rope of(CharSequence text, LeafPolicy policy, Balance balance) {
+        return new Rope(balance.apply(RopeBuilder.of(text, policy.maxSize())), policy, balance);
+    }
+
+    /**
+     * Create a builder of a rope.
+     * @return the builder
+     */
+    public static RopeBuilder builder() {
+        return builder(LeafPolicy.DEFAULT, Balance.weightBased());
+    }
+
+    /**
+     * Create a builder of a rope.
+     * @param policy the leaf size policy
+     * @param balance the balancing strategy
+     * @return the builder
+     */
+    public static RopeBuilder builder(LeafPolicy policy, Balance balance) {
+        return new RopeBuilder(policy, balance);
+    }
+
+    /**
+     * Open the file as a rope backed by a read-only memory mapping of it.
+     * <p>
+     * The file is scanned once to count the chars and line feeds of its regions, which
+     * are decoded lazily on access, so the heap holds only the tree over the regions.
+     * Edits add ordinary leaves for the new text, and share the untouched regions.
+     * The file must not be modified while the rope is in use, and the charset must be
+     * decodable from any character boundary (e.g. UTF-8, ISO-8859-1 or UTF-16LE). A byte
+     * order mark of UTF-16 or UTF-32 is skipped, and a stateful charset such as ISO-2022-JP
+     * is rejected.
+     * @param path the path of the file
+     * @param charset the charset of the file
+     * @return the rope
+     * @throws IOException if an I/O error occurs, or the file has more than {@code Integer.MAX_VALUE} chars
+     * @throws IllegalArgumentException if the charset is stateful
+     */
+    public static Rope open(Path path, Charset charset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mappings stay valid after the channel is closed
+            Balance balance = Balance.weightBased();
+            return new Rope(balance.apply(Node.of(Mapped.scan(channel, charset))), LeafPolicy.DEFAULT, balance);
+        }
     }
 
     public Rope insert(int index, String str) {
+        Objects.checkIndex(index, length() + 1);
         if (str.isEmpty()) return this;
 
+        // splice a small insert into the target leaf while it has room
+        if (str.length() < policy.maxSize()) {
+            Node spliced = splice(root, index, str);
+            if (spliced != null) return new Rope(spliced, policy, balance);
+        }
+
         // split existing rope
-        Rope[] parts = split(index);
-        Rope leftPart = parts[0];
-        Rope rightPart = parts[1];
+        Node[] parts = split(root, index);
 
-        // concatenate (concatenate handles balancing)
-        Rope insertRope = new Rope(str);
-        return leftPart.concat(insertRope).concat(rightPart);
+        // concatenate (join handles merging and balancing)
+        Node inserted = join(parts[0], Node.of(str, policy.maxSize()));
+        return new Rope(join(inserted, parts[1]), policy, balance);
     }
 
     public Rope delete(int start, int end) {
@@ -60,32 +162,28 @@ public class Rope {
         }
         if (start == end) return this;
 
-        // split at start
-        Rope[] parts1 = split(start);
-        Rope leftPart = parts1[0];
-        Rope rightPartAndDeleted = parts1[1];
-
-        // split the second part at (end - start) to get the final right part
-        Rope[] parts2 = rightPartAndDeleted.split(end - start);
-        Rope retainedRightPart = parts2[1];
+        // split at start, then split the second part at (end - start) to get the final right part
+        Node[] parts1 = split(root, start);
+        Node[] parts2 = split(parts1[1], end - start);
 
-        // concatenate the two retained parts (concatenate handles balancing)
-        return leftPart.concat(retainedRightPart);
+        // concatenate the two retained parts (join handles merging and balancing)
+        return new Rope(join(parts1[0], parts2[1]), policy, balance);
     }
 
     public Rope concat(Rope that) {
-        if (this.root.isEmpty()) return that;
+        if (this.root.isEmpty()) return new Rope(balanced(that.root), policy, balance);
         if (that.root.isEmpty()) return this;
-
-        // concatenates this Rope with another Rope (O(1) to O(log N) with balancing)
-        //                         newRoot
-        //                          /   \
-        //      A      D     ->    A      D
-        //     / \    / \         / \    / \
-        //    B   C  E   F       B   C  E   F
-        Branch newRoot = new Branch(this.root, that.root);
-
-        return new Rope(balance.apply(newRoot));
+        var event = new RopeEvents.Concat();
+        event.begin();
+        Rope rope = new Rope(join(this.root, that.root), policy, balance);
+        event.end();
+        if (event.shouldCommit()) {
+            event.leftLength = this.length();
+            event.rightLength = that.length();
+            event.depth = rope.root.depth();
+            event.commit();
+        }
+        return rope;
     }
 
     public Rope[] split(int index) {
@@ -93,35 +191,288 @@ public class Rope {
             throw new IndexOutOfBoundsException("index out of bounds for split.");
         }
         if (index == 0) {
-            return new Rope[] { EMPTY, this };
+            return new Rope[] { new Rope(Node.EMPTY, policy, balance), this };
         }
         if (index == root.totalLength()) {
-            return new Rope[] { this, EMPTY };
+            return new Rope[] { this, new Rope(Node.EMPTY, policy, balance) };
         }
 
         // splits the rope at the given index, returning [leftRope, rightRope] (O(log N)).
+        var event = new RopeEvents.Split();
+        event.begin();
         Node[] resultNodes = splitNode(root, index);
+        event.end();
+        if (event.shouldCommit()) {
+            event.length = length();
+            event.depth = root.depth();
+            event.index = index;
+            event.commit();
+        }
         // no explicit root balancing here; it's handled by subsequent concat/insert/delete.
-        return new Rope[] { new Rope(resultNodes[0]), new Rope(resultNodes[1]) };
+        return new Rope[] { new Rope(resultNodes[0], policy, balance), new Rope(resultNodes[1], policy, balance) };
+    }
+
+    /**
+     * Replace the range with the string, in a single pass over the tree.
+     * @param start the start index of the range (inclusive)
+     * @param end the end index of the range (exclusive)
+     * @param str the string
+     * @return the edited rope
+     */
+    public Rope replace(int start, int end, String str) {
+        return apply(List.of(Edit.replace(start, end, str)));
+    }
+
+    /**
+     * Apply the edits in a single pass over the tree.
+     * <p>
+     * The edits are in the offsets of this rope, sorted and non-overlapping
+     * (inserts at the same index are applied in order). Each node touched by the
+     * edits is rebuilt once, and the untouched subtrees are shared.
+     * @param edits the edits
+     * @return the edited rope
+     */
+    public Rope apply(List<Edit> edits) {
+        int prev = 0;
+        for (Edit edit : edits) {
+            Objects.checkFromToIndex(edit.start(), edit.end(), length());
+            if (edit.start() < prev) {
+                throw new IllegalArgumentException("Edits must be sorted and non-overlapping. " + edit);
+            }
+            prev = edit.end();
+        }
+        if (edits.isEmpty()) return this;
+        return new Rope(apply(root, edits), policy, balance);
+    }
+
+    /**
+     * Create a transient of this rope, which edits a window of the text in place.
+     * Use it for a burst of edits by a single thread, and {@link TransientRope#freeze()}
+     * it back to a rope.
+     * @return the transient
+     */
+    public TransientRope toTransient() {
+        return new TransientRope(this);
+    }
+
+    public LeafPolicy leafPolicy() {
+        return policy;
+    }
+
+    public Balance balance() {
+        return balance;
+    }
+
+    private Node join(Node left, Node right) {
+        if (left.isEmpty()) return right;
+        if (right.isEmpty()) return left;
+
+        // merge the adjacent boundary leaves if one of them is undersized,
+        // or to keep a surrogate pair in one leaf
+        //       left      right          left'    right'
+        //       /  \      /  \           /  \
+        //      A   |x|  |y|   D    ->    A  |xy|     D
+        Node last = lastLeaf(left);
+        Node first = firstLeaf(right);
+        if (policy.shouldMerge(last.totalLength(), first.totalLength()) || splitsPair(last, first)) {
+            left = replaceLastLeaf(left, new Leaf(text(last) + text(first)));
+            right = removeFirstLeaf(right);
+            if (right.isEmpty()) return left;
+        }
+
+        // concatenates the two nodes (O(1) to O(log N) with balancing)
+        //                         newRoot
+        //                          /   \
+        //      A      D     ->    A      D
+        //     / \    / \         / \    / \
+        //    B   C  E   F       B   C  E   F
+        return balanced(new Branch(left, right));
+    }
+
+    private Node balanced(Node node) {
+        var event = new RopeEvents.Balance();
+        event.begin();
+        Node balanced = balance.apply(node);
+        event.end();
+        // a branch only rewrapped as it was is not reported
+        if (event.shouldCommit() && balanced != node && !(node instanceof Branch b &&
+                balanced instanceof Branch r && b.left() == r.left() && b.right() == r.right())) {
+            event.length = node.totalLength();
+            event.depthBefore = node.depth();
+            event.depthAfter = balanced.depth();
+            event.commit();
+        }
+        return balanced;
+    }
+
+    private Node concatNode(Node left, Node right) {
+        if (left.isEmpty()) return right;
+        if (right.isEmpty()) return left;
+        return balanced(new Branch(left, right));
+    }
+
+    private Node splice(Node node, int index, String str) {
+        // insert into the leaf containing index by copying the path to it,
+        // or null if the leaf has no room for the string
+        return switch (node) {
+            case Leaf leaf -> splice(leaf.text(), 0, leaf.totalLength(), index, str);
+            case Slice slice -> splice(slice.base(), slice.offset(), slice.length(), index, str);
+            case Mapped mapped -> splice(mapped, index, str);
+            case Branch branch -> {
+                if (index < branch.weight() || (index == branch.weight() && !branch.left().isEmpty())) {
+                    Node left = splice(branch.left(), index, str);
+                    if (left != null) yield rebranch(branch, left, branch.right());
+                    if (index < branch.weight()) yield null;
+                }
+                Node right = splice(branch.right(), index - branch.weight(), str);
+                yield (right == null) ? null : rebranch(branch, branch.left(), right);
+            }
+            case Wide wide -> {
+                int i = wide.childAt(index);
+                // prefer the end of the left child on a child boundary, as with branches
+                if (i > 0 && index == wide.offsets()[i]) i--;
+                Node child = splice(wide.children()[i], index - wide.offsets()[i], str);
+                if (child == null && index == wide.offsets()[i + 1] && i + 1 < wide.children().length) {
+                    child = splice(wide.children()[++i], 0, str);
+                }
+                // a region spliced into a subtree would break the uniform depth of the children
+                yield (child == null || child.depth() != wide.children()[i].depth()) ? null : wide.with(i, child);
+            }
+        };
+    }
+
+    private Node splice(String text, int offset, int length, int index, String str) {
+        if (length + str.length() > policy.maxSize()
+                || (index == 0 && Character.isLowSurrogate(str.charAt(0)))
+                || (index == length && Character.isHighSurrogate(str.charAt(str.length() - 1)))) {
+            // no room, or a surrogate pair may be formed across the leaf boundary
+            return null;
+        }
+        return new Leaf(new StringBuilder(length + str.length())
+            .append(text, offset, offset + index)
+            .append(str)
+            .append(text, offset + index, offset + length).toString());
+    }
+
+    private Node splice(Mapped mapped, int index, String str) {
+        // keep the region in the file, and put the string between its parts,
+        // where the next inserts splice into the leaf of the string
+        if (Character.isLowSurrogate(str.charAt(0)) || Character.isHighSurrogate(str.charAt(str.length() - 1))) {
+            return null;
+        }
+        if (index == 0) return balanced(new Branch(new Leaf(str), mapped));
+        if (index == mapped.totalLength()) return balanced(new Branch(mapped, new Leaf(str)));
+        Mapped[] parts = mapped.split(index);
+        return (parts == null) ? null : balanced(new Branch(balanced(new Branch(parts[0], new Leaf(str))), parts[1]));
+    }
+
+    // the branch with a spliced child, balanced again if the splice made it deeper
+    private Node rebranch(Branch branch, Node left, Node right) {
+        Branch spliced = new Branch(left, right);
+        return (spliced.depth() == branch.depth()) ? spliced : balanced(spliced);
+    }
+
+    // whether a surrogate pair would be split across the adjacent leaves.
+    private static boolean splitsPair(Node last, Node first) {
+        return !first.isEmpty() && !last.isEmpty()
+            && Character.isLowSurrogate(charAt(first, 0))
+            && Character.isHighSurrogate(charAt(last, last.totalLength() - 1));
+    }
+
+    private static Node firstLeaf(Node node) {
+        return switch (node) {
+            case Leaf leaf -> leaf;
+            case Slice slice -> slice;
+            case Mapped mapped -> mapped;
+            case Branch branch -> firstLeaf(branch.left().isEmpty() ? branch.right() : branch.left());
+            case Wide wide -> firstLeaf(wide.children()[0]);
+        };
+    }
+
+    private static Node lastLeaf(Node node) {
+        return switch (node) {
+            case Leaf leaf -> leaf;
+            case Slice slice -> slice;
+            case Mapped mapped -> mapped;
+            case Branch branch -> lastLeaf(branch.right().isEmpty() ? branch.left() : branch.right());
+            case Wide wide -> lastLeaf(wide.children()[wide.children().length - 1]);
+        };
+    }
+
+    private static Node replaceLastLeaf(Node node, Leaf leaf) {
+        return switch (node) {
+            case Leaf _ -> leaf;
+            case Slice _ -> leaf;
+            case Mapped _ -> leaf;
+            case Branch branch -> branch.right().isEmpty()
+                ? replaceLastLeaf(branch.left(), leaf)
+                : new Branch(branch.left(), replaceLastLeaf(branch.right(), leaf));
+            case Wide wide -> {
+                int last = wide.children().length - 1;
+                yield wide.with(last, replaceLastLeaf(wide.children()[last], leaf));
+            }
+        };
+    }
+
+    private Node removeFirstLeaf(Node node) {
+        return switch (node) {
+            case Leaf _ -> Node.EMPTY;
+            case Slice _ -> Node.EMPTY;
+            case Mapped _ -> Node.EMPTY;
+            case Branch branch -> {
+                if (branch.left().isEmpty()) yield removeFirstLeaf(branch.right());
+                Node left = removeFirstLeaf(branch.left());
+                yield left.isEmpty() ? branch.right() : balanced(new Branch(left, branch.right()));
+            }
+            case Wide wide -> {
+                // the first child may be left underfull or shallower, so it is joined back
+                Node first = removeFirstLeaf(wide.children()[0]);
+                yield concatNode(first, wide.range(1, wide.children().length));
+            }
+        };
+    }
+
+    private Node[] split(Node node, int index) {
+        if (index == 0) return new Node[] { Node.EMPTY, node };
+        if (index == node.totalLength()) return new Node[] { node, Node.EMPTY };
+        return splitNode(node, index);
     }
 
     private Node[] splitNode(Node node, int index) {
         // recursive split function (O(log N))
         return switch (node) {
             case Leaf leaf     -> splitNode(leaf, index);
+            case Slice slice   -> splitNode(slice, index);
+            case Mapped mapped -> splitNode(mapped, index);
             case Branch branch -> splitNode(branch, index);
+            case Wide wide     -> splitNode(wide, index);
         };
     }
 
     private Node[] splitNode(Leaf leaf, int index) {
-        // split the string and create new leaf nodes (CoW)
+        // split into slices sharing the string of the leaf (CoW)
         //  ---------          ------      -------
         //  | abcde |    ->    | ab |      | cde |
         //  ---------          ------      -------
         //     leaf           leftPart    rightPart
-        String leftText  = leaf.text().substring(0, index);
-        String rightText = leaf.text().substring(index);
-        return new Node[] { Node.of(leftText), Node.of(rightText) };
+        if (index == 0) return new Node[] { Node.EMPTY, leaf };
+        if (index == leaf.totalLength()) return new Node[] { leaf, Node.EMPTY };
+        return Slice.split(leaf.text(), 0, leaf, index);
+    }
+
+    private Node[] splitNode(Slice slice, int index) {
+        // the parts are slices of the same string
+        if (index == 0) return new Node[] { Node.EMPTY, slice };
+        if (index == slice.length()) return new Node[] { slice, Node.EMPTY };
+        return Slice.split(slice.base(), slice.offset(), slice, index);
+    }
+
+    private Node[] splitNode(Mapped mapped, int index) {
+        // split the region in the file, or the decoded text inside a surrogate pair
+        if (index == 0) return new Node[] { Node.EMPTY, mapped };
+        if (index == mapped.totalLength()) return new Node[] { mapped, Node.EMPTY };
+        Node[] parts = mapped.split(index);
+        return (parts != null) ? parts : splitNode(mapped.decode(), index);
     }
 
     private Node[] splitNode(Branch node, int index) {
@@ -141,7 +492,7 @@ public class Rope {
 
             Node leftPart = leftSplit[0];
             // new right part: split-right-of-left + original right (shared)
-            Node rightPart = balance.apply(new Branch(leftSplit[1], node.right()));
+            Node rightPart = balanced(new Branch(leftSplit[1], node.right()));
 
             return new Node[] { leftPart, rightPart };
 
@@ -160,7 +511,7 @@ public class Rope {
             Node[] rightSplit = splitNode(node.right(), rightIndex);
 
             // new left part: original left (shared) + split-left-of-right
-            Node leftPart = balance.apply(new Branch(node.left(), rightSplit[0]));
+            Node leftPart = balanced(new Branch(node.left(), rightSplit[0]));
 
             Node rightPart = rightSplit[1];
 
@@ -169,26 +520,773 @@ public class Rope {
         }
     }
 
+    private Node[] splitNode(Wide node, int index) {
+
+        //          Wide                             leftPart        rightPart
+        //    /    /    \    \       ->        /     /    \       /    \
+        //   A    B      C    D               A     B    C'     C''    D
+
+        // split the child containing the split point, and join the children on each side
+        int i = node.childAt(index);
+        Node[] childSplit = split(node.children()[i], index - node.offsets()[i]);
+
+        Node leftPart = concatNode(node.range(0, i), childSplit[0]);
+        Node rightPart = concatNode(childSplit[1], node.range(i + 1, node.children().length));
+
+        return new Node[] { leftPart, rightPart };
+    }
+
+    private Node apply(Node node, List<Edit> edits) {
+        if (edits.isEmpty()) return node;
+        Edit first = edits.get(0);
+        if (edits.size() == 1 && first.start() == 0 && first.end() == node.totalLength()) {
+            // the whole node is replaced
+            return leaves(first.text());
+        }
+        return switch (node) {
+            case Leaf leaf -> rewrite(leaf, edits);
+            case Slice slice -> rewrite(slice, edits);
+            case Mapped mapped -> {
+                // slice the region around the edits, from the last one to keep the offsets
+                Node result = mapped;
+                for (int i = edits.size() - 1; i >= 0; i--) {
+                    Edit edit = edits.get(i);
+                    Node[] right = split(result, edit.end());
+                    Node[] left = split(right[0], edit.start());
+                    result = join(join(left[0], leaves(edit.text())), right[1]);
+                }
+                yield result;
+            }
+            default -> applyToChildren(node, edits);
+        };
+    }
+
+    private Node rewrite(Node leaf, List<Edit> edits) {
+        // rewrite the text of the leaf at once
+        String text = chars(leaf);
+        int offset = start(leaf);
+        StringBuilder sb = new StringBuilder(leaf.totalLength());
+        int pos = 0;
+        for (Edit edit : edits) {
+            sb.append(text, offset + pos, offset + edit.start()).append(edit.text());
+            pos = edit.end();
+        }
+        sb.append(text, offset + pos, offset + leaf.totalLength());
+        return leaves(sb);
+    }
+
+    // the text chunked into leaves by the policy, built bottom-up without padding
+    private Node leaves(CharSequence text) {
+        return balanced(RopeBuilder.of(text, policy.maxSize()));
+    }
+
+    private Node applyToChildren(Node node, List<Edit> edits) {
+
+        // distribute the edits to the children, in the offsets of each child.
+        // an insert at a child boundary goes to the end of the left child,
+        // and an edit across children is cut into a replace and deletes
+        //
+        //            node                              node'
+        //        /    |    \        edit [2, 7)      /    |    \
+        //     |abc| |def| |ghi|         ->       |ab+| |   | |hi|
+        int n = node.childCount();
+        int[] starts = new int[n + 1];
+        List<List<Edit>> parts = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            starts[i + 1] = starts[i] + node.child(i).totalLength();
+            parts.add(new ArrayList<>());
+        }
+        int c = 0;
+        for (Edit edit : edits) {
+            while (c < n - 1 && (edit.start() > starts[c + 1]
+                    || (edit.start() == starts[c + 1] && edit.end() > edit.start()))) {
+                c++;
+            }
+            if (edit.end() <= starts[c + 1] || c == n - 1) {
+                parts.get(c).add(edit.shift(-starts[c]));
+            } else {
+                parts.get(c).add(new Edit(edit.start() - starts[c], starts[c + 1] - starts[c], edit.text()));
+                for (int d = c + 1; d < n && edit.end() > starts[d]; d++) {
+                    parts.get(d).add(Edit.delete(0, Math.min(edit.end(), starts[d + 1]) - starts[d]));
+                }
+            }
+        }
+
+        // rebuild the touched children, and join them with the runs of untouched ones,
+        // which are kept as they are
+        Node result = Node.EMPTY;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && parts.get(j).isEmpty()) j++;
+            if (j > i) {
+                result = join(result, children(node, i, j));
+                i = j;
+            } else {
+                result = join(result, apply(node.child(i), parts.get(i)));
+                i++;
+            }
+        }
+        return result;
+    }
+
+    // the node of the children in the range [from, to) of the node
+    private static Node children(Node node, int from, int to) {
+        if (to - from == 1) return node.child(from);
+        if (node instanceof Wide wide) return wide.range(from, to);
+        return node;
+    }
+
+    @Override
+    public int length() {
+        return root.totalLength();
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length());
+
+        // navigate by weight: go left if index < weight, otherwise go right with index - weight
+        Node node = root;
+        while (node.childCount() > 0) {
+            if (node instanceof Branch branch) {
+                if (index < branch.weight()) {
+                    node = branch.left();
+                } else {
+                    index -= branch.weight();
+                    node = branch.right();
+                }
+            } else if (node instanceof Wide wide) {
+                int i = wide.childAt(index);
+                index -= wide.offsets()[i];
+                node = wide.children()[i];
+            }
+        }
+        return charAt(node, index);
+    }
+
+    public int codePointAt(int index) {
+        return Character.codePointAt(this, index);
+    }
+
+    @Override
+    public Rope subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length());
+        // shares the untouched subtrees with this rope
+        return split(end)[0].split(start)[1];
+    }
+
+    /**
+     * Get the number of lines.
+     * Lines are separated by line feeds, so an empty rope has one line.
+     * @return the number of lines
+     */
+    public int lineCount() {
+        return root.newlines() + 1;
+    }
+
+    /**
+     * Get the offset of the first character of the specified line.
+     * @param line the zero-based line number
+     * @return the offset of the line start
+     */
+    public int lineStart(int line) {
+        Objects.checkIndex(line, lineCount());
+        if (line == 0) return 0;
+
+        // navigate by newlines: find the leaf containing the line-th line feed
+        int offset = 0;
+        Node node = root;
+        while (node.childCount() > 0) {
+            if (node instanceof Branch branch) {
+                if (line <= branch.left().newlines()) {
+                    node = branch.left();
+                } else {
+                    line -= branch.left().newlines();
+                    offset += branch.weight();
+                    node = branch.right();
+                }
+            } else if (node instanceof Wide wide) {
+                int i = 0;
+                while (line > wide.children()[i].newlines()) {
+                    line -= wide.children()[i++].newlines();
+                }
+                offset += wide.offsets()[i];
+                node = wide.children()[i];
+            }
+        }
+        String text = text(node);
+        for (int i = 0; ; i++) {
+            if (text.charAt(i) == '\n' && --line == 0) {
+                return offset + i + 1;
+            }
+        }
+    }
+
+    /**
+     * Get the line number containing the specified offset.
+     * @param offset the offset, {@code length()} is allowed and answers the last line
+     * @return the zero-based line number
+     */
+    public int lineAt(int offset) {
+        Objects.checkIndex(offset, length() + 1);
+
+        // navigate by weight, counting the line feeds of the skipped left subtrees
+        int line = 0;
+        Node node = root;
+        while (node.childCount() > 0) {
+            if (node instanceof Branch branch) {
+                if (offset < branch.weight()) {
+                    node = branch.left();
+                } else {
+                    line += branch.left().newlines();
+                    offset -= branch.weight();
+                    node = branch.right();
+                }
+            } else if (node instanceof Wide wide) {
+                int i = wide.childAt(offset);
+                for (int j = 0; j < i; j++) line += wide.children()[j].newlines();
+                offset -= wide.offsets()[i];
+                node = wide.children()[i];
+            }
+        }
+        String text = text(node);
+        for (int i = 0; i < offset; i++) {
+            if (text.charAt(i) == '\n') line++;
+        }
+        return line;
+    }
+
+    /**
+     * Get the specified line, including its line terminator if any.
+     * @param line the zero-based line number
+     * @return the line
+     */
+    public Rope line(int line) {
+        int start = lineStart(line);
+        int end = (line + 1 < lineCount()) ? lineStart(line + 1) : length();
+        return subSequence(start, end);
+    }
+
+    /**
+     * Get the length of the text encoded in UTF-8.
+     * An unpaired surrogate is counted as the one byte of its replacement '?', as {@link String#getBytes} does.
+     * @return the length in bytes
+     */
+    public long utf8Length() {
+        return root.utf8Length();
+    }
+
+    /**
+     * Get the number of code points.
+     * An unpaired surrogate counts as one code point.
+     * @return the number of code points
+     */
+    public int codePointCount() {
+        return root.codePoints();
+    }
+
+    /**
+     * Get the UTF-8 byte offset of the char index.
+     * An index in the middle of a surrogate pair is moved to the start of the pair.
+     * @param index the char index, {@code length()} is allowed
+     * @return the byte offset
+     */
+    public long charToByte(int index) {
+        Objects.checkIndex(index, length() + 1);
+
+        // navigate by weight, adding the UTF-8 lengths of the skipped left subtrees
+        long offset = 0;
+        Node node = root;
+        while (node.childCount() > 0) {
+            if (node instanceof Branch branch) {
+                if (index < branch.weight()) {
+                    node = branch.left();
+                } else {
+                    offset += branch.left().utf8Length();
+                    index -= branch.weight();
+                    node = branch.right();
+                }
+            } else if (node instanceof Wide wide) {
+                int i = wide.childAt(index);
+                for (int j = 0; j < i; j++) offset += wide.children()[j].utf8Length();
+                index -= wide.offsets()[i];
+                node = wide.children()[i];
+            }
+        }
+        String text = text(node);
+        if (Node.splitsPair(text, index)) index--;
+        return offset + Node.countUtf8Bytes(text, 0, index);
+    }
+
+    /**
+     * Get the char index of the UTF-8 byte offset.
+     * An offset in the middle of the encoding of a char is moved to the start of the char.
+     * @param offset the byte offset, {@code utf8Length()} is allowed
+     * @return the char index
+     */
+    public int byteToChar(long offset) {
+        Objects.checkIndex(offset, utf8Length() + 1);
+
+        // navigate by the UTF-8 lengths, adding the weights of the skipped left subtrees
+        int index = 0;
+        Node node = root;
+        while (node.childCount() > 0) {
+            if (node instanceof Branch branch) {
+                if (offset < branch.left().utf8Length()) {
+                    node = branch.left();
+                } else {
+                    offset -= branch.left().utf8Length();
+                    index += branch.weight();
+                    node = branch.right();
+                }
+            } else if (node instanceof Wide wide) {
+                int i = 0;
+                while (i + 1 < wide.children().length && offset >= wide.children()[i].utf8Length()) {
+                    offset -= wide.children()[i++].utf8Length();
+                }
+                index += wide.offsets()[i];
+                node = wide.children()[i];
+            }
+        }
+        String text = text(node);
+        int i = 0;
+        while (i < text.length()) {
+            int n = Node.splitsPair(text, i + 1) ? 2 : 1;
+            long width = Node.countUtf8Bytes(text, i, i + n);
+            if (offset < width) break;
+            offset -= width;
+            i += n;
+        }
+        return index + i;
+    }
+
+    /**
+     * Get the code point index of the char index.
+     * An index in the middle of a surrogate pair is moved to the start of the pair.
+     * @param index the char index, {@code length()} is allowed
+     * @return the code point index
+     */
+    public int charToCodePoint(int index) {
+        Objects.checkIndex(index, length() + 1);
+
+        // navigate by weight, adding the code points of the skipped left subtrees
+        int codePoint = 0;
+        Node node = root;
+        while (node.childCount() > 0) {
+            if (node instanceof Branch branch) {
+                if (index < branch.weight()) {
+                    node = branch.left();
+                } else {
+                    codePoint += branch.left().codePoints();
+                    index -= branch.weight();
+                    node = branch.right();
+                }
+            } else if (node instanceof Wide wide) {
+                int i = wide.childAt(index);
+                for (int j = 0; j < i; j++) codePoint += wide.children()[j].codePoints();
+                index -= wide.offsets()[i];
+                node = wide.children()[i];
+            }
+        }
+        String text = text(node);
+        if (Node.splitsPair(text, index)) index--;
+        return codePoint + text.codePointCount(0, index);
+    }
+
+    /**
+     * Get the char index of the code point index.
+     * @param codePoint the code point index, {@code codePointCount()} is allowed
+     * @return the char index
+     */
+    public int codePointToChar(int codePoint) {
+        Objects.checkIndex(codePoint, codePointCount() + 1);
+
+        // navigate by the code points, adding the weights of the skipped left subtrees
+        int index = 0;
+        Node node = root;
+        while (node.childCount() > 0) {
+            if (node instanceof Branch branch) {
+                if (codePoint < branch.left().codePoints()) {
+                    node = branch.left();
+                } else {
+                    codePoint -= branch.left().codePoints();
+                    index += branch.weight();
+                    node = branch.right();
+                }
+            } else if (node instanceof Wide wide) {
+                int i = 0;
+                while (i + 1 < wide.children().length && codePoint >= wide.children()[i].codePoints()) {
+                    codePoint -= wide.children()[i++].codePoints();
+                }
+                index += wide.offsets()[i];
+                node = wide.children()[i];
+            }
+        }
+        return index + text(node).offsetByCodePoints(0, codePoint);
+    }
+
+    /**
+     * Convert the UTF-16 column of the line to the UTF-8 column, as the byte offset from the line start.
+     * @param line the zero-based line number
+     * @param column the UTF-16 column, up to the length of the line including its terminator
+     * @return the UTF-8 column
+     */
+    public int utf8Column(int line, int column) {
+        int start = lineStart(line);
+        int end = (line + 1 < lineCount()) ? lineStart(line + 1) : length();
+        Objects.checkIndex(column, end - start + 1);
+        return (int) (charToByte(start + column) - charToByte(start));
+    }
+
+    /**
+     * Convert the UTF-8 column of the line to the UTF-16 column.
+     * @param line the zero-based line number
+     * @param utf8Column the UTF-8 column, up to the UTF-8 length of the line including its terminator
+     * @return the UTF-16 column
+     */
+    public int utf16Column(int line, int utf8Column) {
+        int start = lineStart(line);
+        int end = (line + 1 < lineCount()) ? lineStart(line + 1) : length();
+        long startByte = charToByte(start);
+        Objects.checkIndex(utf8Column, charToByte(end) - startByte + 1);
+        return byteToChar(startByte + utf8Column) - start;
+    }
+
+    /**
+     * Get the index of the first occurrence of the string, searched leaf by leaf.
+     * @param str the string
+     * @return the index of the occurrence, or {@code -1} if not found
+     */
+    public int indexOf(CharSequence str) {
+        return indexOf(str, 0);
+    }
+
+    /**
+     * Get the index of the first occurrence of the string at or after the index.
+     * @param str the string
+     * @param fromIndex the index to start the search from
+     * @return the index of the occurrence, or {@code -1} if not found
+     */
+    public int indexOf(CharSequence str, int fromIndex) {
+        String pattern = str.toString();
+        if (pattern.isEmpty()) return Math.min(Math.max(fromIndex, 0), length());
+        Search search = new Search(root, pattern, fromIndex, length(), false);
+        return search.hasNext() ? search.nextInt() : -1;
+    }
+
+    /**
+     * Get the index of the last occurrence of the string, searched leaf by leaf.
+     * @param str the string
+     * @return the index of the occurrence, or {@code -1} if not found
+     */
+    public int lastIndexOf(CharSequence str) {
+        return lastIndexOf(str, length());
+    }
+
+    /**
+     * Get the index of the last occurrence of the string at or before the index.
+     * @param str the string
+     * @param fromIndex the index to start the backward search from
+     * @return the index of the occurrence, or {@code -1} if not found
+     */
+    public int lastIndexOf(CharSequence str, int fromIndex) {
+        String pattern = str.toString();
+        if (pattern.isEmpty()) return (fromIndex < 0) ? -1 : Math.min(fromIndex, length());
+        return Search.lastIndexOf(root, pattern, fromIndex);
+    }
+
+    /**
+     * Get the indexes of the non-overlapping occurrences of the string, from left to right.
+     * The leaves are searched lazily as the stream is consumed.
+     * @param str the non-empty string
+     * @return the stream of the indexes
+     */
+    public IntStream findAll(CharSequence str) {
+        String pattern = requireNonEmpty(str);
+        return StreamSupport.intStream(Spliterators.spliteratorUnknownSize(
+            new Search(root, pattern, 0, length(), false),
+            Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * Get the indexes of the non-overlapping occurrences of the string, from left to right.
+     * Large ropes are searched by subtree over the common fork-join pool.
+     * @param str the non-empty string
+     * @return the stream of the indexes
+     */
+    public IntStream findAllParallel(CharSequence str) {
+        return IntStream.of(Search.findAll(root, requireNonEmpty(str)));
+    }
+
+    /**
+     * Create a matcher of the regex pattern over this rope.
+     * The matcher reads the chars leaf by leaf, without walking the tree per char
+     * or materializing the text.
+     * @param pattern the regex pattern
+     * @return the matcher
+     */
+    public Matcher matcher(Pattern pattern) {
+        return pattern.matcher(new LeafSequence(this));
+    }
+
+    /**
+     * Get a cursor positioned at the specified index.
+     * @param index the index, {@code length()} is allowed
+     * @return the cursor
+     */
+    public Cursor cursor(int index) {
+        Objects.checkIndex(index, length() + 1);
+        return new Cursor(root, index);
+    }
+
+    /**
+     * Perform the action for each chunk of text in order, without copying.
+     * @param action the action
+     */
+    public void forEachChunk(Consumer<? super CharSequence> action) {
+        new ChunkSpliterator(root, 0, length()).forEachRemaining(action);
+    }
+
+    /**
+     * Get the chunks of text in order, without copying.
+     * @return the stream of chunks
+     */
+    public Stream<CharSequence> chunks() {
+        return StreamSupport.stream(new ChunkSpliterator(root, 0, length()), false);
+    }
+
+    @Override
+    public IntStream chars() {
+        return StreamSupport.intStream(new CharSpliterator(root, 0, length()), false);
+    }
+
+    @Override
+    public IntStream codePoints() {
+        Cursor cursor = cursor(0);
+        PrimitiveIterator.OfInt iterator = new PrimitiveIterator.OfInt() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public int nextInt() {
+                char ch = cursor.nextChar();
+                if (Character.isHighSurrogate(ch) && cursor.hasNext() && Character.isLowSurrogate(cursor.current())) {
+                    return Character.toCodePoint(ch, cursor.nextChar());
+                }
+                return ch;
+            }
+        };
+        return StreamSupport.intStream(Spliterators.spliteratorUnknownSize(iterator,
+            Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * Reduce the text with the monoid.
+     * The leaves are measured and combined by subtree over the fork-join pool
+     * (the current one, or the common pool), in the order of the text.
+     * @param monoid the monoid
+     * @param <T> the type of the measure
+     * @return the measure of the whole text
+     */
+    public <T> T reduce(Monoid<T> monoid) {
+        return new Reduce<>(root, monoid).invoke();
+    }
+
+    /**
+     * Write the text to the writer, leaf by leaf.
+     * @param writer the writer
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(Writer writer) throws IOException {
+        LeafCursor leaves = new LeafCursor(root);
+        leaves.seek(0);
+        do {
+            writer.write(leaves.text(), leaves.offset(), leaves.length());
+        } while (leaves.next());
+    }
+
+    /**
+     * Write the text encoded in the charset to the channel, leaf by leaf,
+     * without materializing the whole text. Malformed or unmappable chars are replaced.
+     * @param channel the blocking channel
+     * @param charset the charset
+     * @return the number of bytes written
+     * @throws IOException if an I/O error occurs
+     */
+    public long writeTo(WritableByteChannel channel, Charset charset) throws IOException {
+        return new ChannelWriter(channel, charset).write(root);
+    }
+
+    /**
+     * Get the 64-bit digest of the text.
+     * The digest is a polynomial hash memoized in each node and composed from the children,
+     * so it is O(1) to read, and equal texts have equal digests whatever their tree shapes.
+     * It is stable across runs, but it is not a cryptographic hash.
+     * @return the digest
+     */
+    public long digest() {
+        return root.digest();
+    }
+
+    /**
+     * Get the shape metrics of the tree, walking all the nodes.
+     * @return the stats
+     * @see RopeStats
+     */
+    public RopeStats stats() {
+        return RopeStats.of(this);
+    }
+
+    /**
+     * Compare the text of this rope with the rope.
+     * Ropes of different lengths or digests are unequal in O(1), and subtrees shared at the
+     * same offsets are equal without reading their text.
+     * @param obj the object
+     * @return {@code true} if the object is a rope of the same text
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || (obj instanceof Rope that && equals(this.root, that.root));
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(root.digest());
+    }
+
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        inOrderTraversal(root, sb);
+        StringBuilder sb = new StringBuilder(length());
+        forEachChunk(sb::append);
         return sb.toString();
     }
 
-    private void inOrderTraversal(Node node, StringBuilder sb) {
-        if (node == null) return;
-        switch (node) {
-            case Leaf leaf -> sb.append(leaf.text());
-            case Branch branch -> {
-                inOrderTraversal(branch.left(), sb);
-                inOrderTraversal(branch.right(), sb);
+    private static boolean equals(Node a, Node b) {
+        if (a == b) return true;
+        if (a.totalLength() != b.totalLength() || a.digest() != b.digest()) return false;
+        // the children at the same offsets, to meet the shared subtrees
+        if (a instanceof Branch x && b instanceof Branch y && x.weight() == y.weight()) {
+            return equals(x.left(), y.left()) && equals(x.right(), y.right());
+        }
+        if (a instanceof Wide x && b instanceof Wide y && Arrays.equals(x.offsets(), y.offsets())) {
+            for (int i = 0; i < x.childCount(); i++) {
+                if (!equals(x.child(i), y.child(i))) return false;
+            }
+            return true;
+        }
+        return contentEquals(a, b);
+    }
+
+    private static boolean contentEquals(Node a, Node b) {
+        // the leaves of both, region by region
+        LeafCursor x = new LeafCursor(a);
+        LeafCursor y = new LeafCursor(b);
+        x.seek(0);
+        y.seek(0);
+        // the read positions in the texts, up to the ends of the leaves
+        String s = x.text();
+        String t = y.text();
+        int i = x.offset();
+        int j = y.offset();
+        int sEnd = i + x.length();
+        int tEnd = j + y.length();
+        for (int remaining = a.totalLength(); remaining > 0; ) {
+            if (i == sEnd) {
+                x.next();
+                s = x.text();
+                i = x.offset();
+                sEnd = i + x.length();
+            } else if (j == tEnd) {
+                y.next();
+                t = y.text();
+                j = y.offset();
+                tEnd = j + y.length();
+            } else {
+                int n = Math.min(sEnd - i, tEnd - j);
+                if (!s.regionMatches(i, t, j, n)) return false;
+                i += n;
+                j += n;
+                remaining -= n;
             }
         }
+        return true;
+    }
+
+    private static char charAt(Node leaf, int index) {
+        return switch (leaf) {
+            case Leaf l -> l.text().charAt(index);
+            case Slice slice -> slice.charAt(index);
+            case Mapped mapped -> mapped.charAt(index);
+            default -> throw new IllegalArgumentException();
+        };
+    }
+
+    static String text(Node leaf) {
+        return switch (leaf) {
+            case Leaf l -> l.text();
+            case Slice slice -> slice.text();
+            case Mapped mapped -> mapped.decode().text();
+            default -> throw new IllegalArgumentException();
+        };
+    }
+
+    // the string holding the text of the leaf from start(leaf), without copying a slice.
+    static String chars(Node leaf) {
+        return (leaf instanceof Slice slice) ? slice.base() : text(leaf);
+    }
+
+    static int start(Node leaf) {
+        return (leaf instanceof Slice slice) ? slice.offset() : 0;
+    }
+
+    private static String requireNonEmpty(CharSequence str) {
+        String pattern = str.toString();
+        if (pattern.isEmpty()) throw new IllegalArgumentException("Empty string.");
+        return pattern;
     }
 
     Node root() {
         return root;
     }
 
+    private static final class Reduce<T> extends RecursiveTask<T> {
+
+        // the size of the subtrees reduced sequentially
+        private static final int GRAIN = 1 << 16;
+
+        private final Node node;
+        private final Monoid<T> monoid;
+
+        Reduce(Node node, Monoid<T> monoid) {
+            this.node = node;
+            this.monoid = monoid;
+        }
+
+        @Override
+        protected T compute() {
+            if (node.totalLength() <= GRAIN || node.childCount() == 0) {
+                T result = monoid.identity();
+                if (node.isEmpty()) return result;
+                LeafCursor leaves = new LeafCursor(node);
+                leaves.seek(0);
+                do {
+                    if (leaves.length() > 0) result = monoid.combine(result, monoid.measure(leaves.chars()));
+                } while (leaves.next());
+                return result;
+            }
+            List<Reduce<T>> tasks = new ArrayList<>(node.childCount());
+            for (int i = 0; i < node.childCount(); i++) {
+                tasks.add(new Reduce<>(node.child(i), monoid));
+            }
+            invokeAll(tasks);
+            T result = monoid.identity();
+            for (Reduce<T> task : tasks) {
+                result = monoid.combine(result, task.join());
+            }
+            return result;
+        }
+    }
+
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import com.mammb.code.rope.Node.Branch;
+import com.mammb.code.rope.Node.Leaf;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds a rope from appended text in a single pass.
+ * <p>
+ * The text is chunked into full leaves, which are combined bottom-up as they come,
+ * like the carries of a binary counter: the stack holds perfect subtrees of strictly
+ * decreasing depth, and two subtrees of the same depth are joined into one.
+ * No padding leaves are created, and appended ropes share their leaves.
+ * <pre>
+ *   leaves: a b c d e        stack: [ (a b)(c d) , e ]  ->  build: ((a b)(c d)) e
+ * </pre>
+ */
+public final class RopeBuilder implements Appendable {
+
+    // the input size above which Rope.of builds the subtrees in parallel
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    private final LeafPolicy policy;
+    private final Balance balance;
+    private final StringBuilder chunk;
+    private final Node[] stack = new Node[32];
+    private int size;
+
+    RopeBuilder(LeafPolicy policy, Balance balance) {
+        this.policy = Objects.requireNonNull(policy);
+        this.balance = Objects.requireNonNull(balance);
+        this.chunk = new StringBuilder(policy.maxSize());
+    }
+
+    @Override
+    public RopeBuilder append(char c) {
+        chunk.append(c);
+        if (chunk.length() == policy.maxSize()) flush(false);
+        return this;
+    }
+
+    @Override
+    public RopeBuilder append(CharSequence text) {
+        return append(text, 0, text.length());
+    }
+
+    @Override
+    public RopeBuilder append(CharSequence text, int start, int end) {
+        Objects.checkFromToIndex(start, end, text.length());
+        while (start < end) {
+            int n = Math.min(policy.maxSize() - chunk.length(), end - start);
+            if (chunk.isEmpty() && n == policy.maxSize() && !Character.isHighSurrogate(text.charAt(start + n - 1))) {
+                // a full leaf straight from the text, without the chunk copy
+                Node.chunk(text, start, start + n, this::push);
+            } else {
+                chunk.append(text, start, start + n);
+                if (chunk.length() == policy.maxSize()) flush(false);
+            }
+            start += n;
+        }
+        return this;
+    }
+
+    /**
+     * Append the rope, sharing its leaves.
+     * A rope shorter than a leaf is copied into the pending chunk instead.
+     * @param rope the rope
+     * @return this builder
+     */
+    public RopeBuilder append(Rope rope) {
+        if (rope.length() < policy.maxSize()) {
+            rope.forEachChunk(this::append);
+            return this;
+        }
+        flush(false);
+        if (!chunk.isEmpty()) {
+            // a pending high surrogate, kept with the head of the rope
+            append(rope.charAt(0));
+            flush(true);
+            rope = rope.subSequence(1, rope.length());
+        }
+        pushLeaves(rope.root());
+        return this;
+    }
+
+    /**
+     * Build the rope of the text appended so far.
+     * @return the rope
+     */
+    public Rope build() {
+        flush(true);
+        if (size == 0) return new Rope(Node.EMPTY, policy, balance);
+        // fold the subtrees from the smallest one
+        Node root = stack[size - 1];
+        for (int i = size - 2; i >= 0; i--) {
+            root = balance.apply(new Branch(stack[i], root));
+        }
+        return new Rope(balance.apply(root), policy, balance);
+    }
+
+    private void flush(boolean last) {
+        int n = chunk.length();
+        // a trailing high surrogate waits for its low surrogate, so a pair is never split across leaves
+        if (!last && n > 0 && Character.isHighSurrogate(chunk.charAt(n - 1))) n--;
+        if (n == 0) return;
+        Node.chunk(chunk, 0, n, this::push);
+        chunk.delete(0, n);
+    }
+
+    private void pushLeaves(Node node) {
+        if (node.childCount() == 0) {
+            if (!node.isEmpty()) push(node);
+            return;
+        }
+        for (int i = 0; i < node.childCount(); i++) {
+            pushLeaves(node.child(i));
+        }
+    }
+
+    private void push(Node leaf) {
+        // join the subtrees of the same depth, as a carry
+        Node node = leaf;
+        while (size > 0 && stack[size - 1].depth() == node.depth()) {
+            node = new Branch(stack[--size], node);
+        }
+        stack[size++] = node;
+    }
+
+    /**
+     * Build a perfectly balanced tree of the text chunked into leaves, without padding.
+     * Large texts are built over the common fork-join pool, so the text must not be
+     * modified during the construction.
+     * @param text the text
+     * @param leafSize the size of the leaves
+     * @return the root node
+     */
+    static Node of(CharSequence text, int leafSize) {
+        if (text.isEmpty()) return Node.EMPTY;
+        int leaves = (int) (((long) text.length() + leafSize - 1) / leafSize);
+        Build build = new Build(text, leafSize, 0, leaves);
+        return (text.length() < PARALLEL_THRESHOLD)
+            ? build.compute()
+            : ForkJoinPool.commonPool().invoke(build);
+    }
+
+    private static final class Build extends RecursiveTask<Node> {
+
+        private final CharSequence text;
+        private final int leafSize;
+        private final int from;
+        private final int to;
+
+        Build(CharSequence text, int leafSize, int from, int to) {
+            this.text = text;
+            this.leafSize = leafSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Node compute() {
+            if (to - from == 1) {
+                // the same boundaries as the neighbouring chunks, past a surrogate pair
+                int start = Node.boundary(text, from * leafSize);
+                int end = Node.boundary(text, Math.min((from + 1) * leafSize, text.length()));
+                if (start == end) return Node.EMPTY;
+                List<Leaf> leaves = new ArrayList<>(3);
+                Node.chunk(text, start, end, leaves::add);
+                return switch (leaves.size()) {
+                    case 1 -> leaves.get(0);
+                    case 2 -> new Branch(leaves.get(0), leaves.get(1));
+                    default -> new Branch(new Branch(leaves.get(0), leaves.get(1)), leaves.get(2));
+                };
+            }
+            int mid = (from + to + 1) >>> 1;
+            Build left = new Build(text, leafSize, from, mid);
+            Build right = new Build(text, leafSize, mid, to);
+            if ((long) (to - from) * leafSize < PARALLEL_THRESHOLD) {
+                return new Branch(left.compute(), right.compute());
+            }
+            left.fork();
+            Node r = right.compute();
+            return new Branch(left.join(), r);
+        }
+    }
+
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * A document shared by threads, holding the current version of a rope.
+ * <p>
+ * The current rope is held in an atomic reference. A reader takes a snapshot in a single
+ * volatile read, and is never blocked by the writers. A writer computes the new rope from
+ * the current one and swaps it in by CAS, retrying from the newer rope when another
+ * writer swapped first. Since the ropes are immutable, a retry costs one more edit of
+ * {@code O(log n)}, and the subtrees are shared between the versions.
+ * <pre>
+ *   reader:  snapshot() -> rope (never blocks)
+ *   writer:  base = snapshot(); next = f(base); CAS(base, next) or retry with f(newer)
+ * </pre>
+ * The document keeps the changes of its recent versions, and the edits computed against an
+ * older snapshot can be rebased onto the current rope with {@link #apply(Rope, List)},
+ * which maps their offsets through the changes made since.
+ * <p>
+ * The listeners are notified on the executor, not on the writer thread. The notifications
+ * are serial and coalesced, so a listener may see several writes as a single change, but
+ * always sees the changes in order, ending with the latest rope.
+ */
+public final class RopeDocument {
+
+    /**
+     * A listener of the changes of a document.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called when the document has changed.
+         * @param before the rope notified previously
+         * @param after the current rope
+         */
+        void changed(Rope before, Rope after);
+    }
+
+    // the number of versions kept for rebasing, the chain is cut back to it at twice the number
+    private static final int HISTORY = 64;
+
+    // starts a virtual thread per drain, shared by the documents and holding nothing to close
+    private static final Executor NOTIFIER = Thread::startVirtualThread;
+
+    // a change of a version, replacing the range of the previous version with a text of the length
+    private record Change(int start, int end, int length) { }
+
+    // a version with the changes from the previous version, in the offsets of the previous
+    private record Version(Rope rope, List<Change> changes, Version previous, int depth) {
+        Version next(Rope rope, List<Change> changes) {
+            return depth < 2 * HISTORY
+                ? new Version(rope, changes, this, depth + 1)
+                : new Version(rope, changes, cut(this, HISTORY - 1), HISTORY);
+        }
+        // a copy of the latest versions of the chain
+        private static Version cut(Version version, int depth) {
+            return depth == 0
+                ? new Version(version.rope, List.of(), null, 0)
+                : new Version(version.rope, version.changes, cut(version.previous, depth - 1), depth);
+        }
+    }
+
+    // the new rope with its changes
+    private record Step(Rope rope, List<Change> changes) { }
+
+    private final AtomicReference<Version> root;
+    private final Executor executor;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // the number of writes not yet drained, a drain is running while it is non-zero
+    private final AtomicInteger pending = new AtomicInteger();
+    // the rope notified last, accessed by the drain only
+    private Rope delivered;
+
+    /**
+     * Create a document, notifying the listeners on virtual threads.
+     * @param initial the initial rope
+     */
+    public RopeDocument(Rope initial) {
+        this(initial, NOTIFIER);
+    }
+
+    /**
+     * Create a document.
+     * @param initial the initial rope
+     * @param executor the executor notifying the listeners
+     */
+    public RopeDocument(Rope initial, Executor executor) {
+        this.root = new AtomicReference<>(new Version(Objects.requireNonNull(initial), List.of(), null, 0));
+        this.executor = Objects.requireNonNull(executor);
+        this.delivered = initial;
+    }
+
+    /**
+     * Get the current rope. This is wait-free.
+     * @return the current rope
+     */
+    public Rope snapshot() {
+        return root.get().rope();
+    }
+
+    /**
+     * Update the rope with the function, retrying on contention.
+     * <p>
+     * The function may be called more than once, with a newer rope each time,
+     * so it should be free of side effects. The change is recorded by {@link Diff}, as a
+     * single range covering everything that differs.
+     * @param fn the function computing the new rope from the current one
+     * @return the new rope
+     */
+    public Rope update(UnaryOperator<Rope> fn) {
+        return write(version -> {
+            Rope next = fn.apply(version.rope());
+            return new Step(next, changes(Diff.of(version.rope().root(), next.root())));
+        });
+    }
+
+    public Rope insert(int index, String str) {
+        return write(version -> new Step(version.rope().insert(index, str),
+            List.of(new Change(index, index, str.length()))));
+    }
+
+    public Rope delete(int start, int end) {
+        return write(version -> new Step(version.rope().delete(start, end),
+            List.of(new Change(start, end, 0))));
+    }
+
+    public Rope concat(Rope that) {
+        return write(version -> {
+            int length = version.rope().length();
+            return new Step(version.rope().concat(that), List.of(new Change(length, length, that.length())));
+        });
+    }
+
+    /**
+     * Apply the edits to the current rope.
+     * @param edits the edits in the offsets of the current rope, as in {@link Rope#apply(List)}
+     * @return the new rope
+     */
+    public Rope apply(List<Edit> edits) {
+        return write(version -> new Step(version.rope().apply(edits), changes(edits)));
+    }
+
+    /**
+     * Apply the edits made against the base snapshot, rebasing them onto the current rope.
+     * <p>
+     * The offsets are mapped through the changes of each version since the base: an offset
+     * before a change stays, and one after it moves by the change of length. An insert at the
+     * offset of a concurrent insert goes after it. An edit overlapping a concurrent change,
+     * or an insert inside a replaced range, cannot be rebased and is rejected.
+     * @param base the snapshot the edits were made against
+     * @param edits the edits in the offsets of the base
+     * @return the new rope
+     * @throws ConcurrentModificationException if an edit conflicts with a concurrent change,
+     *     or the base is older than the versions kept by the document
+     */
+    public Rope apply(Rope base, List<Edit> edits) {
+        Objects.requireNonNull(base);
+        return write(version -> {
+            List<Edit> rebased = rebase(edits, since(version, base));
+            return new Step(version.rope().apply(rebased), changes(rebased));
+        });
+    }
+
+    private Rope write(Function<Version, Step> fn) {
+        for (;;) {
+            Version current = root.get();
+            Step step = fn.apply(current);
+            if (step.rope() == current.rope()) return current.rope();
+            if (root.compareAndSet(current, current.next(step.rope(), step.changes()))) {
+                signal();
+                return step.rope();
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static List<Change> changes(List<Edit> edits) {
+        List<Change> changes = new ArrayList<>(edits.size());
+        for (Edit edit : edits) {
+            changes.add(new Change(edit.start(), edit.end(), edit.text().length()));
+        }
+        return changes;
+    }
+
+    // the changes of the versions after the base, the oldest first
+    private static List<List<Change>> since(Version version, Rope base) {
+        List<List<Change>> since = new ArrayList<>();
+        for (Version v = version; v.rope() != base; v = v.previous()) {
+            if (v.previous() == null) {
+                throw new ConcurrentModificationException("The base is not in the recent versions.");
+            }
+            since.add(v.changes());
+        }
+        Collections.reverse(since);
+        return since;
+    }
+
+    private static List<Edit> rebase(List<Edit> edits, List<List<Change>> since) {
+        for (List<Change> changes : since) {
+            List<Edit> rebased = new ArrayList<>(edits.size());
+            for (Edit edit : edits) {
+                rebased.add(rebase(edit, changes));
+            }
+            edits = rebased;
+        }
+        return edits;
+    }
+
+    // the edit mapped through the changes, which are sorted and apart as in Rope#apply
+    private static Edit rebase(Edit edit, List<Change> changes) {
+        int shift = 0;
+        for (Change change : changes) {
+            int delta = change.length() - (change.end() - change.start());
+            if (edit.start() == edit.end()) {
+                int pos = edit.start();
+                if (change.end() < pos || (change.end() == pos && (change.start() < pos || change.length() > 0))) {
+                    // before the insert, or an insert at the same offset
+                    shift += delta;
+                } else if (change.start() < pos) {
+                    throw conflict(edit);
+                }
+            } else if (change.end() <= edit.start()) {
+                shift += delta;
+            } else if (change.start() < edit.end()) {
+                throw conflict(edit);
+            }
+        }
+        return shift == 0 ? edit : new Edit(edit.start() + shift, edit.end() + shift, edit.text());
+    }
+
+    private static ConcurrentModificationException conflict(Edit edit) {
+        return new ConcurrentModificationException("The edit conflicts with a concurrent change. " + edit);
+    }
+
+    /**
+     * Add a listener of the changes.
+     * @param listener the listener
+     */
+    public void addListener(Listener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Remove the listener.
+     * @param listener the listener
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void signal() {
+        // the writer only counts, the first count starts a drain
+        if (!listeners.isEmpty() && pending.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        for (;;) {
+            int seen = pending.get();
+            Rope now = root.get().rope();
+            if (now != delivered) {
+                Rope before = delivered;
+                delivered = now;
+                for (Listener listener : listeners) {
+                    try {
+                        listener.changed(before, now);
+                    } catch (RuntimeException e) {
+                        Thread t = Thread.currentThread();
+                        t.getUncaughtExceptionHandler().uncaughtException(t, e);
+                    }
+                }
+            }
+            // exit unless writes came in meanwhile
+            if (pending.compareAndSet(seen, 0)) return;
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * The JDK Flight Recorder events of the rope operations.
+ * <p>
+ * The events are disabled unless a recording enables them, such as
+ * {@code -XX:StartFlightRecording:settings=profile}, and a disabled event costs
+ * a check only. The thresholds can be overridden by the recording settings.
+ */
+final class RopeEvents {
+
+    private RopeEvents() { }
+
+    @Name("com.mammb.code.rope.Split")
+    @Label("Rope Split")
+    @Category("Rope")
+    @Description("A rope split at an index")
+    @Threshold("1 ms")
+    static final class Split extends Event {
+        @Label("Length")
+        int length;
+        @Label("Depth")
+        int depth;
+        @Label("Index")
+        int index;
+    }
+
+    @Name("com.mammb.code.rope.Concat")
+    @Label("Rope Concat")
+    @Category("Rope")
+    @Description("Two ropes concatenated")
+    @Threshold("1 ms")
+    static final class Concat extends Event {
+        @Label("Left Length")
+        int leftLength;
+        @Label("Right Length")
+        int rightLength;
+        @Label("Depth")
+        int depth;
+    }
+
+    @Name("com.mammb.code.rope.Balance")
+    @Label("Rope Balance")
+    @Category("Rope")
+    @Description("A branch restructured by the balancing, by rotations or a rebuild")
+    @Threshold("0 ms")
+    static final class Balance extends Event {
+        @Label("Length")
+        int length;
+        @Label("Depth Before")
+        int depthBefore;
+        @Label("Depth After")
+        int depthAfter;
+    }
+
+}
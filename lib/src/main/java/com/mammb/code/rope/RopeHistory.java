@@ -0,0 +1,225 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A linear history of the versions of a rope, with undo and redo.
+ * <p>
+ * Each version records the edits from the previous version (the delta) and their inverse,
+ * besides the rope itself. The ropes share their untouched subtrees, and
+ * {@link #compact(int)} drops the ropes of the versions far from the current one, which are
+ * then rebuilt from the nearest kept rope by replaying the deltas when they are visited.
+ * So the memory of the old versions is bounded by the size of their edits.
+ * <pre>
+ *   versions:  v0 --edits--> v1 --edits--> v2 --edits--> v3 (current)
+ *   compact(1):  -            -            rope          rope
+ *   undo() x 2:  v1 = v3 + inverse(v3) + inverse(v2)
+ * </pre>
+ * A new version after undo discards the redoable versions. A history is not thread-safe.
+ */
+public final class RopeHistory {
+
+    private record Version(Rope rope, List<Edit> edits, List<Edit> inverse) {
+        Version withRope(Rope rope) {
+            return new Version(rope, edits, inverse);
+        }
+    }
+
+    private final int limit;
+    private final List<Version> versions = new ArrayList<>();
+    private int current;
+
+    /**
+     * Create a history of the rope.
+     * @param initial the initial version
+     */
+    public RopeHistory(Rope initial) {
+        this(initial, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a history of the rope, keeping up to the limit of versions.
+     * @param initial the initial version
+     * @param limit the maximum number of versions, the oldest ones are dropped beyond it
+     */
+    public RopeHistory(Rope initial, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1. " + limit);
+        }
+        this.limit = limit;
+        this.versions.add(new Version(Objects.requireNonNull(initial), List.of(), List.of()));
+    }
+
+    /**
+     * Get the current version.
+     * @return the current rope
+     */
+    public Rope current() {
+        return versions.get(current).rope();
+    }
+
+    /**
+     * Apply the edits to the current version, and record the result as a new version.
+     * @param edits the edits, as in {@link Rope#apply(List)}
+     * @return the new current rope
+     */
+    public Rope apply(List<Edit> edits) {
+        Rope rope = current();
+        return record(rope.apply(edits), List.copyOf(edits));
+    }
+
+    /**
+     * Record the rope as a new version, with the delta from the current version by {@link #diff}.
+     * @param rope the new version
+     * @return the rope
+     */
+    public Rope push(Rope rope) {
+        return record(rope, diff(current(), rope));
+    }
+
+    public boolean canUndo() {
+        return current > 0;
+    }
+
+    public boolean canRedo() {
+        return current < versions.size() - 1;
+    }
+
+    /**
+     * Move to the previous version.
+     * @return the previous rope
+     * @throws IllegalStateException if there is no previous version
+     */
+    public Rope undo() {
+        if (!canUndo()) throw new IllegalStateException("Nothing to undo.");
+        Version version = versions.get(current);
+        Version previous = versions.get(current - 1);
+        if (previous.rope() == null) {
+            versions.set(current - 1, previous.withRope(version.rope().apply(version.inverse())));
+        }
+        return versions.get(--current).rope();
+    }
+
+    /**
+     * Move to the next version.
+     * @return the next rope
+     * @throws IllegalStateException if there is no next version
+     */
+    public Rope redo() {
+        if (!canRedo()) throw new IllegalStateException("Nothing to redo.");
+        Version next = versions.get(current + 1);
+        if (next.rope() == null) {
+            versions.set(current + 1, next.withRope(current().apply(next.edits())));
+        }
+        return versions.get(++current).rope();
+    }
+
+    /**
+     * Get the edits from the previous version to the current one.
+     * @return the edits, in the offsets of the previous version
+     */
+    public List<Edit> changes() {
+        return versions.get(current).edits();
+    }
+
+    /**
+     * Get the number of versions.
+     * @return the number of versions
+     */
+    public int size() {
+        return versions.size();
+    }
+
+    /**
+     * Get the index of the current version.
+     * @return the index of the current version
+     */
+    public int index() {
+        return current;
+    }
+
+    /**
+     * Drop the ropes of the versions farther than the distance from the current one,
+     * keeping their deltas to rebuild them.
+     * @param distance the distance of the versions to keep the ropes of, zero to keep the current only
+     * @throws IllegalArgumentException if the distance is negative
+     */
+    public void compact(int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("distance must not be negative. " + distance);
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            Version version = versions.get(i);
+            if (Math.abs(i - current) > distance && version.rope() != null) {
+                versions.set(i, version.withRope(null));
+            }
+        }
+    }
+
+    /**
+     * Get the edit changing the text of a rope into another.
+     * <p>
+     * The common prefix and suffix are skipped by walking both trees together, where the
+     * subtrees shared at the same offsets are skipped by reference. So for versions of
+     * a rope, the time is proportional to the changed range, not to the length of the text.
+     * @param a the old rope
+     * @param b the new rope
+     * @return the edits, empty if the texts are equal, or a single replace of the changed range
+     */
+    public static List<Edit> diff(Rope a, Rope b) {
+        return Diff.of(a.root(), b.root());
+    }
+
+    private Rope record(Rope rope, List<Edit> edits) {
+        Rope previous = current();
+        versions.subList(current + 1, versions.size()).clear();
+        versions.add(new Version(rope, edits, inverse(previous, edits)));
+        current++;
+        if (versions.size() > limit) {
+            // the oldest version, rebuilt from its successor if compacted
+            Version oldest = versions.get(1);
+            if (oldest.rope() == null) {
+                int kept = 2;
+                while (versions.get(kept).rope() == null) kept++;
+                Rope r = versions.get(kept).rope();
+                for (int i = kept; i > 1; i--) r = r.apply(versions.get(i).inverse());
+                oldest = oldest.withRope(r);
+            }
+            versions.set(1, new Version(oldest.rope(), List.of(), List.of()));
+            versions.remove(0);
+            current--;
+        }
+        return rope;
+    }
+
+    private static List<Edit> inverse(Rope previous, List<Edit> edits) {
+        // the edits back to the previous version, in the offsets of the new one
+        List<Edit> inverse = new ArrayList<>(edits.size());
+        int shift = 0;
+        for (Edit edit : edits) {
+            int start = edit.start() + shift;
+            inverse.add(new Edit(start, start + edit.text().length(),
+                previous.subSequence(edit.start(), edit.end()).toString()));
+            shift += edit.text().length() - (edit.end() - edit.start());
+        }
+        return List.copyOf(inverse);
+    }
+
+}
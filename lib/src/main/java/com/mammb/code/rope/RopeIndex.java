@@ -0,0 +1,277 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import java.lang.ref.WeakReference;
+import java.nio.CharBuffer;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * An index of ropes by a monoid summary, e.g. line counts, bracket depths or token counts.
+ * <p>
+ * The summary of each leaf is measured once, in place, and the summary of each branch
+ * computed once from the summaries of its children, and both are memoized by the identity
+ * of the node. As the nodes are immutable and shared between the versions of a rope,
+ * an edited rope reuses the summaries of its untouched subtrees, and only the O(log N)
+ * new nodes of the edit (by splits, joins and rotations) are summarized again. The memo
+ * holds the nodes weakly, so it never goes stale nor keeps dropped versions alive.
+ * A lookup in the memo allocates nothing.
+ * <pre>
+ *   Monoid&lt;Long&gt; lf = Monoid.of(0L, chunk -&gt; chunk.chars().filter(c -&gt; c == '\n').count(), Long::sum);
+ *   RopeIndex&lt;Long&gt; lines = RopeIndex.of(lf);
+ *   int lineStart = lines.seek(rope, n -&gt; n &gt;= 100);   // after the 100th line feed
+ * </pre>
+ * An index can be shared by threads.
+ * @param <T> the type of the summary
+ */
+public final class RopeIndex<T> {
+
+    private final Monoid<T> monoid;
+    private final Memo<T> memo = new Memo<>();
+
+    private RopeIndex(Monoid<T> monoid) {
+        this.monoid = Objects.requireNonNull(monoid);
+    }
+
+    /**
+     * Create an index of the monoid.
+     * @param monoid the monoid of the summary
+     * @param <T> the type of the summary
+     * @return the index
+     */
+    public static <T> RopeIndex<T> of(Monoid<T> monoid) {
+        return new RopeIndex<>(monoid);
+    }
+
+    /**
+     * Get the summary of the text of the rope.
+     * @param rope the rope
+     * @return the summary
+     */
+    public T summary(Rope rope) {
+        return summary(rope.root());
+    }
+
+    /**
+     * Get the summary of the range of the text of the rope.
+     * @param rope the rope
+     * @param start the start index of the range (inclusive)
+     * @param end the end index of the range (exclusive)
+     * @return the summary
+     */
+    public T summary(Rope rope, int start, int end) {
+        Objects.checkFromToIndex(start, end, rope.length());
+        return summary(rope.root(), 0, start, end);
+    }
+
+    /**
+     * Get the end of the shortest prefix of the text whose summary satisfies the predicate.
+     * @param rope the rope
+     * @param predicate the predicate, monotone on the prefixes (once true, true for the longer ones)
+     * @return the end index of the prefix, or {@code -1} if the whole text does not satisfy it
+     */
+    public int seek(Rope rope, Predicate<? super T> predicate) {
+        return seek(rope, 0, predicate);
+    }
+
+    /**
+     * Get the end of the shortest range from the index whose summary satisfies the predicate.
+     * The subtrees are skipped by their summaries, and the leaf at the end of the range
+     * is searched by binary search on the summaries of its prefixes.
+     * @param rope the rope
+     * @param from the start index of the range
+     * @param predicate the predicate, monotone on the ranges from the index
+     * @return the end index of the range, or {@code -1} if the range to the end does not satisfy it
+     */
+    public int seek(Rope rope, int from, Predicate<? super T> predicate) {
+        Objects.checkIndex(from, rope.length() + 1);
+        if (predicate.test(monoid.identity())) return from;
+        Seek seek = new Seek(from, predicate);
+        return seek.visit(rope.root(), 0);
+    }
+
+    private final class Seek {
+
+        private final int from;
+        private final Predicate<? super T> predicate;
+        private T acc = monoid.identity();
+
+        Seek(int from, Predicate<? super T> predicate) {
+            this.from = from;
+            this.predicate = predicate;
+        }
+
+        int visit(Node node, int start) {
+            int end = start + node.totalLength();
+            if (end <= from) return -1;
+            if (start >= from) {
+                // skip the whole node by its summary
+                T s = monoid.combine(acc, summary(node));
+                if (!predicate.test(s)) {
+                    acc = s;
+                    return -1;
+                }
+            }
+            if (node.childCount() == 0) {
+                int i = search(node, Math.max(from - start, 0));
+                return (i < 0) ? -1 : start + i;
+            }
+            for (int i = 0; i < node.childCount(); i++) {
+                int found = visit(node.child(i), start);
+                if (found >= 0) return found;
+                start += node.child(i).totalLength();
+            }
+            return -1;
+        }
+
+        private int search(Node leaf, int lo) {
+            // the end of the shortest range in the leaf satisfying the predicate
+            int low = lo + 1;
+            int high = leaf.totalLength();
+            T whole = monoid.combine(acc, (lo == 0) ? summary(leaf) : monoid.measure(chars(leaf, lo, high)));
+            if (!predicate.test(whole)) {
+                acc = whole;
+                return -1;
+            }
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (predicate.test(monoid.combine(acc, monoid.measure(chars(leaf, lo, mid))))) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    private T summary(Node node, int start, int from, int to) {
+        // the summary of [from, to) in the node at start
+        int end = start + node.totalLength();
+        if (from <= start && end <= to) return summary(node);
+        if (node.childCount() == 0) {
+            return monoid.measure(chars(node, Math.max(from - start, 0), Math.min(to, end) - start));
+        }
+        T result = monoid.identity();
+        for (int i = 0; i < node.childCount() && start < to; i++) {
+            Node child = node.child(i);
+            if (start + child.totalLength() > from) result = monoid.combine(result, summary(child, start, from, to));
+            start += child.totalLength();
+        }
+        return result;
+    }
+
+    private T summary(Node node) {
+        if (node.isEmpty()) return monoid.identity();
+        T summary = memo.get(node);
+        if (summary == null) {
+            if (node.childCount() == 0) {
+                summary = monoid.measure(chars(node, 0, node.totalLength()));
+            } else {
+                summary = monoid.identity();
+                for (int i = 0; i < node.childCount(); i++) {
+                    summary = monoid.combine(summary, summary(node.child(i)));
+                }
+            }
+            memo.put(node, summary);
+        }
+        return summary;
+    }
+
+    private static CharSequence chars(Node leaf, int from, int to) {
+        // the range of the text of the leaf, as a view of the string holding it
+        String text = Rope.chars(leaf);
+        int offset = Rope.start(leaf);
+        return (offset + from == 0 && offset + to == text.length())
+            ? text
+            : CharBuffer.wrap(text, offset + from, offset + to);
+    }
+
+    /**
+     * A table of summaries by the identity of the nodes, held weakly.
+     * The keys are probed in place by the identity hash of the node, and the entries
+     * of the collected nodes are dropped when the table fills up.
+     * @param <T> the type of the summary
+     */
+    private static final class Memo<T> {
+
+        private Entry<T>[] table = newTable(64);
+        private int size;
+
+        synchronized T get(Node node) {
+            int mask = table.length - 1;
+            for (int i = hash(node) & mask; table[i] != null; i = (i + 1) & mask) {
+                if (table[i].get() == node) return table[i].value;
+            }
+            return null;
+        }
+
+        synchronized void put(Node node, T value) {
+            if (2 * (size + 1) > table.length) rehash();
+            int mask = table.length - 1;
+            int i = hash(node) & mask;
+            while (table[i] != null) {
+                if (table[i].get() == node) return;
+                i = (i + 1) & mask;
+            }
+            table[i] = new Entry<>(node, value);
+            size++;
+        }
+
+        private void rehash() {
+            // drop the collected entries, and fill a quarter of the table with the live ones
+            int live = 0;
+            for (Entry<T> e : table) {
+                if (e != null && e.get() != null) live++;
+            }
+            Entry<T>[] old = table;
+            table = newTable(Math.max(64, Integer.highestOneBit(4 * (live + 1) - 1) << 1));
+            size = 0;
+            int mask = table.length - 1;
+            for (Entry<T> e : old) {
+                if (e == null || e.get() == null) continue;
+                int i = e.hash & mask;
+                while (table[i] != null) i = (i + 1) & mask;
+                table[i] = e;
+                size++;
+            }
+        }
+
+        private static int hash(Node node) {
+            int h = System.identityHashCode(node);
+            return h ^ (h >>> 16);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Entry<T>[] newTable(int capacity) {
+            return (Entry<T>[]) new Entry<?>[capacity];
+        }
+
+        private static final class Entry<T> extends WeakReference<Node> {
+
+            private final int hash;
+            private final T value;
+
+            Entry(Node node, T value) {
+                super(node);
+                this.hash = hash(node);
+                this.value = value;
+            }
+        }
+    }
+
+}
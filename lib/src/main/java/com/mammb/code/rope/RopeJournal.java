@@ -0,0 +1,475 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * A rope kept durable by an append-only journal of its edits, with group commit.
+ * <p>
+ * Each insert and delete is applied to the current rope and appended to an in-memory batch.
+ * A background thread writes the batch to the journal file and forces it to the disk, so
+ * the edits made while a force is in progress are committed together by the next one.
+ * {@link #commit()} gives a future completed when the edits made so far are durable.
+ * <p>
+ * When the journal grows past the checkpoint size, the rope is written as a
+ * {@link RopeSnapshot} and the journal starts over. On open, the latest checkpoint is loaded
+ * and the journals after it are replayed. A record torn by a crash at the end of the last
+ * journal fails its checksum, and is dropped with the rest of the tail.
+ * <pre>
+ *   dir/checkpoint-00..0120.rope    the rope after the edit 120
+ *   dir/journal-00..0120.log        [size, crc, seq, kind, offset, text or length] ...
+ * </pre>
+ * The edits are serialized by the journal, and it can be shared by threads.
+ */
+public final class RopeJournal implements Closeable {
+
+    /**
+     * The options of a journal.
+     * @param commitInterval the time the background thread waits to batch more edits before
+     *        each force, zero to force as soon as the previous force is done; the wait ends
+     *        early when a commit or a checkpoint is requested
+     * @param checkpointSize the size of the journal in bytes that triggers a checkpoint
+     */
+    public record Options(Duration commitInterval, long checkpointSize) {
+
+        public static final Options DEFAULT = new Options(Duration.ZERO, 64L << 20);
+
+        public Options {
+            if (commitInterval.isNegative() || checkpointSize < 1) {
+                throw new IllegalArgumentException("Invalid options. " + commitInterval + ", " + checkpointSize);
+            }
+        }
+    }
+
+    private static final byte INSERT = 1;
+    private static final byte DELETE = 2;
+    // seq, kind, offset and length
+    private static final int RECORD_SIZE = 8 + 1 + 4 + 4;
+
+    private final Path dir;
+    private final Options options;
+    private final Thread committer;
+
+    // guarded by this
+    private Rope rope;
+    private long seq;
+    private ByteArrayOutputStream batch = new ByteArrayOutputStream();
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final List<CompletableFuture<Void>> checkpoints = new ArrayList<>();
+    private IOException failure;
+    private boolean closed;
+
+    // accessed by the committer only, after the construction
+    private FileChannel channel;
+    private long journalSize;
+    private long durable;
+    private long checkpointed;
+    private long journalStart;
+
+    private record Waiter(long seq, CompletableFuture<Void> future) { }
+
+    private RopeJournal(Path dir, Options options, Rope rope, long seq, long checkpointed,
+            long journalStart, FileChannel channel) throws IOException {
+        this.dir = dir;
+        this.options = options;
+        this.rope = rope;
+        this.seq = seq;
+        this.durable = seq;
+        this.checkpointed = checkpointed;
+        this.journalStart = journalStart;
+        this.channel = channel;
+        this.journalSize = channel.size();
+        this.committer = new Thread(this::run, "rope-journal-" + dir.getFileName());
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Open the journal in the directory, starting with an empty rope if there is none.
+     * @param dir the directory of the journal
+     * @return the journal
+     * @throws IOException if an I/O error occurs, or the journal is corrupt
+     */
+    public static RopeJournal open(Path dir) throws IOException {
+        return open(dir, new Rope(), Options.DEFAULT);
+    }
+
+    /**
+     * Open the journal in the directory, recovering the rope from its checkpoint and journals.
+     * @param dir the directory of the journal
+     * @param initial the rope to start with if the directory has no journal
+     * @param options the options
+     * @return the journal
+     * @throws IOException if an I/O error occurs, or the journal is corrupt
+     */
+    public static RopeJournal open(Path dir, Rope initial, Options options) throws IOException {
+        Files.createDirectories(dir);
+        try (Stream<Path> tmp = Files.list(dir)) {
+            // a checkpoint left unfinished by a crash
+            for (Path path : tmp.filter(p -> p.getFileName().toString().endsWith(".tmp")).toList()) {
+                Files.delete(path);
+            }
+        }
+        List<Long> checkpoints = sequences(dir, "checkpoint-", ".rope");
+        long checkpointed = checkpoints.isEmpty() ? 0 : checkpoints.get(checkpoints.size() - 1);
+        if (checkpoints.isEmpty()) writeCheckpoint(dir, initial, checkpointed);
+        Rope rope = checkpoints.isEmpty() ? initial : RopeSnapshot.read(checkpoint(dir, checkpointed)).get(0);
+        long seq = checkpointed;
+
+        List<Long> journals = sequences(dir, "journal-", ".log");
+        Path last = null;
+        long journalStart = seq;
+        for (long start : journals) {
+            if (start < seq) continue;
+            if (start != seq) throw new IOException("Missing journal before " + journal(dir, start));
+            last = journal(dir, start);
+            journalStart = start;
+            Replay replay = replay(last, rope, seq, start == journals.get(journals.size() - 1));
+            rope = replay.rope();
+            seq = replay.seq();
+        }
+        FileChannel channel;
+        if (last == null) {
+            channel = FileChannel.open(journal(dir, seq), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            syncDirectory(dir);
+        } else {
+            channel = FileChannel.open(last, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return new RopeJournal(dir, options, rope, seq, checkpointed, journalStart, channel);
+    }
+
+    private record Replay(Rope rope, long seq) { }
+
+    private static Replay replay(Path path, Rope rope, long seq, boolean last) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+        CRC32C crc = new CRC32C();
+        while (in.remaining() > 0) {
+            int pos = in.position();
+            int size = (in.remaining() >= 8) ? in.getInt() : -1;
+            // a zero-filled tail has a valid checksum, but not a valid size
+            if (size < RECORD_SIZE || size > in.remaining() - 4) {
+                return torn(path, pos, last, rope, seq);
+            }
+            int checksum = in.getInt();
+            crc.reset();
+            crc.update(in.array(), in.position(), size);
+            if ((int) crc.getValue() != checksum) {
+                return torn(path, pos, last, rope, seq);
+            }
+            if (in.getLong() != seq + 1) throw new IOException("Out of sequence at " + pos + " in " + path);
+            byte kind = in.get();
+            int offset = in.getInt();
+            rope = switch (kind) {
+                case INSERT -> {
+                    char[] chars = new char[in.getInt()];
+                    in.asCharBuffer().get(chars);
+                    in.position(in.position() + chars.length * 2);
+                    yield rope.insert(offset, new String(chars));
+                }
+                case DELETE -> rope.delete(offset, offset + in.getInt());
+                default -> throw new IOException("Unknown record " + kind + " at " + pos + " in " + path);
+            };
+            seq++;
+        }
+        return new Replay(rope, seq);
+    }
+
+    private static Replay torn(Path path, int pos, boolean last, Rope rope, long seq) throws IOException {
+        // only the tail of the last journal may be torn by a crash
+        if (!last) throw new IOException("Corrupt record at " + pos + " in " + path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(pos);
+            channel.force(true);
+        }
+        return new Replay(rope, seq);
+    }
+
+    /**
+     * Get the current rope, with all the edits applied (durable or not).
+     * @return the current rope
+     */
+    public synchronized Rope rope() {
+        return rope;
+    }
+
+    /**
+     * Insert the string, and append the edit to the journal.
+     * @param index the index
+     * @param str the string
+     * @return the new rope
+     */
+    public synchronized Rope insert(int index, String str) {
+        Rope next = rope.insert(index, str);
+        if (next != rope) {
+            append(INSERT, index, str.length(), str);
+            rope = next;
+        }
+        return rope;
+    }
+
+    /**
+     * Delete the range, and append the edit to the journal.
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     * @return the new rope
+     */
+    public synchronized Rope delete(int start, int end) {
+        Rope next = rope.delete(start, end);
+        if (next != rope) {
+            append(DELETE, start, end - start, null);
+            rope = next;
+        }
+        return rope;
+    }
+
+    private void append(byte kind, int offset, int length, String str) {
+        ensureOpen();
+        int size = RECORD_SIZE + ((str == null) ? 0 : 2 * length);
+        ByteBuffer record = ByteBuffer.allocate(8 + size);
+        record.putInt(size).putInt(0).putLong(seq + 1).put(kind).putInt(offset).putInt(length);
+        if (str != null) record.asCharBuffer().put(str);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), 8, size);
+        record.putInt(4, (int) crc.getValue());
+        batch.write(record.array(), 0, record.capacity());
+        seq++;
+        notifyAll();
+    }
+
+    /**
+     * Get a future completed when all the edits made so far are durable.
+     * @return the future, failed with an {@link UncheckedIOException} if the journal failed
+     */
+    public synchronized CompletableFuture<Void> commit() {
+        ensureOpen();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        waiters.add(new Waiter(seq, future));
+        notifyAll();
+        return future;
+    }
+
+    /**
+     * Request a checkpoint of the current rope, regardless of the size of the journal.
+     * @return a future completed when the checkpoint is durable
+     */
+    public synchronized CompletableFuture<Void> checkpoint() {
+        ensureOpen();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        checkpoints.add(future);
+        notifyAll();
+        return future;
+    }
+
+    /**
+     * Commit the pending edits, and stop the journal.
+     * @throws IOException if the journal failed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        synchronized (this) {
+            if (failure != null) throw failure;
+        }
+    }
+
+    private void ensureOpen() {
+        if (failure != null) throw new UncheckedIOException("Journal failed", failure);
+        if (closed) throw new IllegalStateException("Journal closed");
+    }
+
+    private void run() {
+        try {
+            for (;;) {
+                boolean stop;
+                synchronized (this) {
+                    while (batch.size() == 0 && waiters.isEmpty() && checkpoints.isEmpty() && !closed) {
+                        wait();
+                    }
+                    // let more edits join the batch, unless a commit or a checkpoint is waiting
+                    long remaining = options.commitInterval().toNanos();
+                    long deadline = System.nanoTime() + remaining;
+                    while (remaining > 0 && waiters.isEmpty() && checkpoints.isEmpty() && !closed) {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                        remaining = deadline - System.nanoTime();
+                    }
+                    stop = closed;
+                }
+                write();
+                if (stop) {
+                    synchronized (this) {
+                        if (batch.size() == 0) break;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            fail(new IOException(e));
+        }
+    }
+
+    private void write() throws IOException {
+        byte[] bytes;
+        long upto;
+        Rope snapshot;
+        List<CompletableFuture<Void>> requested;
+        synchronized (this) {
+            bytes = batch.toByteArray();
+            batch = new ByteArrayOutputStream();
+            upto = seq;
+            boolean full = journalSize + bytes.length >= options.checkpointSize();
+            requested = new ArrayList<>(checkpoints);
+            checkpoints.clear();
+            // the rope of the last edit in the batch, for a checkpoint
+            snapshot = (full || !requested.isEmpty()) ? rope : null;
+        }
+        if (bytes.length > 0) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            journalSize += bytes.length;
+        }
+        if (upto != durable) {
+            channel.force(false);
+            durable = upto;
+        }
+        complete(upto);
+        if (snapshot != null) {
+            checkpoint(snapshot, upto);
+            requested.forEach(f -> f.complete(null));
+        }
+    }
+
+    private void complete(long upto) {
+        List<Waiter> done = new ArrayList<>();
+        synchronized (this) {
+            while (!waiters.isEmpty() && waiters.peek().seq() <= upto) done.add(waiters.poll());
+        }
+        done.forEach(w -> w.future().complete(null));
+    }
+
+    private void checkpoint(Rope snapshot, long at) throws IOException {
+        if (at == checkpointed) return;
+        // the edits after the snapshot go to a new journal, and the older files are
+        // deleted only after the checkpoint is durable
+        if (at != journalStart) {
+            channel.close();
+            channel = FileChannel.open(journal(dir, at), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            journalStart = at;
+            journalSize = 0;
+        }
+        // also makes the entry of the new journal durable, before the older files go
+        writeCheckpoint(dir, snapshot, at);
+        checkpointed = at;
+        for (long start : sequences(dir, "journal-", ".log")) {
+            if (start < at) Files.deleteIfExists(journal(dir, start));
+        }
+        for (long start : sequences(dir, "checkpoint-", ".rope")) {
+            if (start < at) {
+                try {
+                    Files.deleteIfExists(checkpoint(dir, start));
+                } catch (IOException ignore) {
+                    // still mapped by the leaves of a rope on some platforms, left for the next time
+                }
+            }
+        }
+    }
+
+    private static void writeCheckpoint(Path dir, Rope rope, long seq) throws IOException {
+        Path tmp = dir.resolve("checkpoint.tmp");
+        RopeSnapshot.write(tmp, List.of(rope));
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, checkpoint(dir, seq), StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(dir);
+    }
+
+    // make the created and renamed entries of the directory durable
+    private static void syncDirectory(Path dir) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(dir, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // a directory cannot be opened on some platforms, such as Windows, which offer no such sync
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    private void fail(IOException e) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        synchronized (this) {
+            failure = e;
+            waiters.forEach(w -> futures.add(w.future()));
+            waiters.clear();
+            futures.addAll(checkpoints);
+            checkpoints.clear();
+        }
+        futures.forEach(f -> f.completeExceptionally(new UncheckedIOException(e)));
+    }
+
+    private static List<Long> sequences(Path dir, String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                .map(name -> Long.parseLong(name, prefix.length(), name.length() - suffix.length(), 10))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private static Path checkpoint(Path dir, long seq) {
+        return dir.resolve("checkpoint-%020d.rope".formatted(seq));
+    }
+
+    private static Path journal(Path dir, long seq) {
+        return dir.resolve("journal-%020d.log".formatted(seq));
+    }
+
+}
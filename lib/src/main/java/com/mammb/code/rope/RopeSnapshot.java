@@ -0,0 +1,295 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import com.mammb.code.rope.Node.Branch;
+import com.mammb.code.rope.Node.Leaf;
+import com.mammb.code.rope.Node.Mapped;
+import com.mammb.code.rope.Node.Wide;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A binary snapshot of ropes, to persist them and reload them without re-chunking the text.
+ * <p>
+ * The nodes are written sequentially in post-order, each once, so a subtree shared by
+ * several ropes (such as versions of a document) is stored once and shared again when
+ * loaded. A leaf is written with its cached metrics and its text, in Latin-1 if it fits,
+ * and in UTF-16 otherwise. A branch refers to its children by their position in the file.
+ * <pre>
+ *   header:  magic "ROPE", version, node count, rope count
+ *   leaf:    kind, length, newlines, utf8Length, codePoints, digest, byte length, bytes
+ *   branch:  kind, left, right
+ *   wide:    kind, child count, children
+ *   ropes:   (root, minSize, maxSize) x rope count
+ * </pre>
+ * The loader maps the file, and the leaves reference their text in the mapping, as the
+ * leaves of {@link Rope#open(Path, java.nio.charset.Charset)}. The chars of a Latin-1 or
+ * UTF-16 leaf are read straight from the mapping, a whole leaf text is decoded to the heap
+ * when needed and kept softly, and the branches are rebuilt without reading the text.
+ * The file must not be modified while the loaded ropes are in use.
+ */
+public final class RopeSnapshot {
+
+    private static final int MAGIC = 0x524F5045;
+    private static final int VERSION = 1;
+
+    // the leaf kinds: mapped Latin-1, mapped UTF-16, and UTF-16 loaded to the heap
+    private static final byte LATIN1 = 0;
+    private static final byte UTF16 = 1;
+    // an unpaired surrogate would be replaced by the decoder, so such a leaf is loaded eagerly
+    private static final byte CHARS = 2;
+    private static final byte BRANCH = 3;
+    private static final byte WIDE = 4;
+
+    // the maximum size of a mapping of the file
+    private static final int WINDOW_SIZE = 1 << 30;
+
+    private RopeSnapshot() { }
+
+    /**
+     * Write the ropes to the file, storing the subtrees shared between them once.
+     * @param path the path of the file
+     * @param ropes the ropes
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(Path path, List<Rope> ropes) throws IOException {
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            Map<Node, Integer> ids = new IdentityHashMap<>();
+            List<Node> order = new ArrayList<>();
+            for (Rope rope : ropes) postOrder(rope.root(), ids, order);
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(order.size());
+            out.writeInt(ropes.size());
+            for (Node node : order) {
+                switch (node) {
+                    case Branch branch -> {
+                        out.writeByte(BRANCH);
+                        out.writeInt(ids.get(branch.left()));
+                        out.writeInt(ids.get(branch.right()));
+                    }
+                    case Wide wide -> {
+                        out.writeByte(WIDE);
+                        out.writeInt(wide.children().length);
+                        for (Node child : wide.children()) out.writeInt(ids.get(child));
+                    }
+                    default -> writeLeaf(out, node);
+                }
+            }
+            for (Rope rope : ropes) {
+                out.writeInt(ids.get(rope.root()));
+                out.writeInt(rope.leafPolicy().minSize());
+                out.writeInt(rope.leafPolicy().maxSize());
+            }
+        }
+    }
+
+    private static void postOrder(Node root, Map<Node, Integer> ids, List<Node> order) {
+        // a node is numbered after all of its children, with an explicit stack
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.peek();
+            if (ids.containsKey(node)) {
+                stack.pop();
+                continue;
+            }
+            boolean ready = true;
+            for (int i = node.childCount() - 1; i >= 0; i--) {
+                if (!ids.containsKey(node.child(i))) {
+                    stack.push(node.child(i));
+                    ready = false;
+                }
+            }
+            if (ready) {
+                stack.pop();
+                ids.put(node, order.size());
+                order.add(node);
+            }
+        }
+    }
+
+    private static void writeLeaf(DataOutputStream out, Node leaf) throws IOException {
+        String text = Rope.text(leaf);
+        byte kind = kindOf(text);
+        out.writeByte(kind);
+        out.writeInt(text.length());
+        out.writeInt(leaf.newlines());
+        out.writeLong(leaf.utf8Length());
+        out.writeInt(leaf.codePoints());
+        out.writeLong(leaf.digest());
+        if (kind == LATIN1) {
+            out.writeInt(text.length());
+            out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+        } else {
+            out.writeInt(text.length() * 2);
+            out.writeChars(text);
+        }
+    }
+
+    private static byte kindOf(String text) {
+        byte kind = LATIN1;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c <= 0xff) continue;
+            kind = UTF16;
+            if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                return CHARS;
+            }
+        }
+        return kind;
+    }
+
+    /**
+     * Load the ropes from the file, with the weight based balancing.
+     * @param path the path of the file
+     * @return the ropes in the order they were written
+     * @throws IOException if an I/O error occurs, or the file is not a snapshot
+     */
+    public static List<Rope> read(Path path) throws IOException {
+        return read(path, Balance.weightBased());
+    }
+
+    /**
+     * Load the ropes from the file.
+     * @param path the path of the file
+     * @param balance the balancing of the loaded ropes
+     * @return the ropes in the order they were written
+     * @throws IOException if an I/O error occurs, or the file is not a snapshot
+     */
+    public static List<Rope> read(Path path, Balance balance) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mappings stay valid after the channel is closed
+            Input in = new Input(channel);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a rope snapshot: " + path);
+            }
+            Node[] nodes = new Node[in.readInt()];
+            int count = in.readInt();
+            for (int i = 0; i < nodes.length; i++) {
+                byte kind = in.readByte();
+                nodes[i] = switch (kind) {
+                    case BRANCH -> new Branch(in.readNode(nodes, i), in.readNode(nodes, i));
+                    case WIDE -> {
+                        Node[] children = new Node[in.readInt()];
+                        for (int c = 0; c < children.length; c++) children[c] = in.readNode(nodes, i);
+                        yield new Wide(children);
+                    }
+                    case LATIN1, UTF16, CHARS -> readLeaf(in, kind);
+                    default -> throw new IOException("Corrupt snapshot: kind " + kind + " at node " + i);
+                };
+            }
+            List<Rope> ropes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Node root = in.readNode(nodes, nodes.length);
+                ropes.add(new Rope(root, new LeafPolicy(in.readInt(), in.readInt()), balance));
+            }
+            return ropes;
+        }
+    }
+
+    private static Node readLeaf(Input in, byte kind) throws IOException {
+        int length = in.readInt();
+        int newlines = in.readInt();
+        long utf8Length = in.readLong();
+        int codePoints = in.readInt();
+        long digest = in.readLong();
+        ByteBuffer bytes = in.slice(in.readInt());
+        if (length == 0) return Node.EMPTY;
+        return switch (kind) {
+            case LATIN1 -> new Mapped(bytes, StandardCharsets.ISO_8859_1, length, newlines, utf8Length,
+                codePoints, digest, true);
+            case UTF16 -> new Mapped(bytes, StandardCharsets.UTF_16BE, length, newlines, utf8Length,
+                codePoints, digest, false);
+            default -> new Leaf(bytes.asCharBuffer().toString(), newlines, utf8Length, codePoints, digest);
+        };
+    }
+
+    // a sequential reader over the mapped windows of the file
+    private static final class Input {
+
+        private final FileChannel channel;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private int pos;
+
+        Input(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        int readInt() throws IOException {
+            int value = need(4).getInt(pos);
+            pos += 4;
+            return value;
+        }
+
+        long readLong() throws IOException {
+            long value = need(8).getLong(pos);
+            pos += 8;
+            return value;
+        }
+
+        byte readByte() throws IOException {
+            byte value = need(1).get(pos);
+            pos += 1;
+            return value;
+        }
+
+        Node readNode(Node[] nodes, int before) throws IOException {
+            // a reference to a node written before
+            int id = readInt();
+            if (id < 0 || id >= before) throw new IOException("Corrupt snapshot: node " + id);
+            return nodes[id];
+        }
+
+        ByteBuffer slice(int size) throws IOException {
+            ByteBuffer bytes = need(size).slice(pos, size);
+            pos += size;
+            return bytes;
+        }
+
+        private MappedByteBuffer need(int size) throws IOException {
+            // map the next window when the read would cross the end of the current one
+            if (window == null || pos + size > window.capacity()) {
+                windowStart += pos;
+                pos = 0;
+                long remaining = channel.size() - windowStart;
+                if (remaining < size) throw new IOException("Truncated snapshot");
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW_SIZE, remaining));
+            }
+            return window;
+        }
+    }
+
+}
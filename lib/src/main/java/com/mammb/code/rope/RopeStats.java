@@ -0,0 +1,157 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import com.mammb.code.rope.Node.Branch;
+import com.mammb.code.rope.Node.Leaf;
+import com.mammb.code.rope.Node.Mapped;
+import com.mammb.code.rope.Node.Slice;
+import com.mammb.code.rope.Node.Wide;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The shape metrics of the tree of a rope.
+ * <p>
+ * The tree is walked with an explicit stack, so the stats of a deep or large tree
+ * don't overflow the call stack. A node used more than once in the tree, such as the
+ * halves of {@code r.concat(r)}, is counted once, and the walk is {@code O(distinct nodes)}.
+ *
+ * @param length the length of the text
+ * @param depth the depth of the tree
+ * @param leaves the number of distinct leaves, including the slices and the mapped ones
+ * @param branches the number of distinct inner nodes
+ * @param leafSizes the histogram of the leaf lengths, where the element {@code k} is the
+ *        number of leaves of length in {@code [2^(k-1), 2^k)}, and the element 0 the empty ones
+ * @param imbalance the depth divided by the depth of a perfectly balanced binary tree of
+ *        the leaves, 1.0 for a balanced tree (below 1.0 for wide nodes)
+ * @param retainedBytes the estimated heap bytes of the nodes and their text, excluding the
+ *        mapped regions (assuming compressed oops and compact strings)
+ * @param shared the fraction of the nodes shared with the other rope, 0.0 if none compared
+ */
+public record RopeStats(int length, int depth, int leaves, int branches, List<Integer> leafSizes,
+        double imbalance, long retainedBytes, double shared) {
+
+    public RopeStats {
+        leafSizes = List.copyOf(leafSizes);
+    }
+
+    /**
+     * Get the stats of the rope.
+     * @param rope the rope
+     * @return the stats
+     */
+    public static RopeStats of(Rope rope) {
+        return walk(rope.root(), Collections.emptySet());
+    }
+
+    /**
+     * Get the stats of the rope, with the fraction of its nodes shared with the other rope,
+     * such as a previous version.
+     * @param rope the rope
+     * @param other the other rope
+     * @return the stats
+     */
+    public static RopeStats of(Rope rope, Rope other) {
+        Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(other.root());
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (!nodes.add(node)) continue;
+            switch (node) {
+                case Branch branch -> {
+                    stack.push(branch.right());
+                    stack.push(branch.left());
+                }
+                case Wide wide -> {
+                    for (Node child : wide.children()) stack.push(child);
+                }
+                default -> { }
+            }
+        }
+        return walk(rope.root(), nodes);
+    }
+
+    private static RopeStats walk(Node root, Set<Node> others) {
+        int[] sizes = new int[33];
+        int leaves = 0, branches = 0, shared = 0;
+        long bytes = 0;
+
+        Set<Node> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (!seen.add(node)) continue;
+            if (others.contains(node)) shared++;
+            switch (node) {
+                case Leaf leaf -> {
+                    leaves++;
+                    sizes[32 - Integer.numberOfLeadingZeros(leaf.totalLength())]++;
+                    // ascii leaves are known to be stored in one byte per char
+                    int perChar = (leaf.utf8Length() == leaf.totalLength()) ? 1 : 2;
+                    bytes += 40 + 24 + align(16 + (long) perChar * leaf.totalLength());
+                }
+                case Slice slice -> {
+                    leaves++;
+                    sizes[32 - Integer.numberOfLeadingZeros(slice.totalLength())]++;
+                    // the node and its part of the base string, which may be shared by another slice
+                    int perChar = (slice.utf8Length() == slice.totalLength()) ? 1 : 2;
+                    bytes += 48 + (long) perChar * slice.totalLength();
+                }
+                case Mapped mapped -> {
+                    leaves++;
+                    sizes[32 - Integer.numberOfLeadingZeros(mapped.totalLength())]++;
+                    // the node and its buffer, the region is off-heap
+                    bytes += 56 + 64;
+                }
+                case Branch branch -> {
+                    branches++;
+                    bytes += 56;
+                    stack.push(branch.right());
+                    stack.push(branch.left());
+                }
+                case Wide wide -> {
+                    branches++;
+                    int n = wide.children().length;
+                    bytes += 48 + align(16 + 4L * n) + align(16 + 4L * (n + 1));
+                    for (Node child : wide.children()) stack.push(child);
+                }
+            }
+        }
+
+        int last = sizes.length;
+        while (last > 0 && sizes[last - 1] == 0) last--;
+        List<Integer> histogram = Arrays.stream(sizes, 0, last).boxed().toList();
+        // a balanced binary tree of n leaves has the depth of ceil(log2(n))
+        int balanced = 32 - Integer.numberOfLeadingZeros(Math.max(leaves, 1) - 1);
+        double imbalance = (balanced == 0) ? 1.0 : (double) root.depth() / balanced;
+        int nodes = leaves + branches;
+        return new RopeStats(root.totalLength(), root.depth(), leaves, branches, histogram,
+            imbalance, bytes, others.isEmpty() ? 0.0 : (double) shared / nodes);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+}
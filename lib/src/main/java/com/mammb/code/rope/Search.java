@@ -0,0 +1,245 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.StreamSupport;
+
+/**
+ * Searches a substring in the leaves of a tree, without materializing the text.
+ * <p>
+ * Each leaf is searched with {@link String#indexOf(String, int, int)}, which the JVM compiles
+ * to a vectorized intrinsic. A match across leaves is found in a small window of the
+ * last {@code m - 1} chars of the text before the leaf (the carry) and the first
+ * {@code m - 1} chars of the leaf, where {@code m} is the length of the pattern.
+ * <pre>
+ *   leaves:  |..xxab|cdyy..|       pattern: "abcd"
+ *   window:      "xab" + "cdy"     (a match starting in the carry)
+ * </pre>
+ * As an iterator, it yields the starts of the matches in {@code [from, to)} in order.
+ */
+final class Search implements PrimitiveIterator.OfInt {
+
+    private final String pattern;
+    private final int to;
+    private final boolean overlapping;
+    private final LeafCursor leaves;
+    private String text;
+    // the offset in the tree of the first char of the text, and the range of the leaf in the text
+    private int start;
+    private int lo;
+    private int hi;
+    private String carry = "";
+    private String window;
+    private int min;
+    private int next = -1;
+    private boolean done;
+
+    /**
+     * Create a search of the pattern.
+     * @param root the root node
+     * @param pattern the non-empty pattern
+     * @param from the minimum start of the matches
+     * @param to the maximum start of the matches (exclusive)
+     * @param overlapping whether to yield overlapping matches, or only the leftmost ones
+     */
+    Search(Node root, String pattern, int from, int to, boolean overlapping) {
+        this.pattern = pattern;
+        this.to = Math.min(to, root.totalLength() - pattern.length() + 1);
+        this.overlapping = overlapping;
+        this.leaves = new LeafCursor(root);
+        this.min = Math.max(from, 0);
+        this.done = min >= this.to;
+        if (!done) {
+            leaves.seek(min);
+            enter();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next < 0 && !done) {
+            next = find();
+            done = next < 0;
+        }
+        return next >= 0;
+    }
+
+    @Override
+    public int nextInt() {
+        if (!hasNext()) throw new NoSuchElementException();
+        int found = next;
+        next = -1;
+        min = found + (overlapping ? 1 : pattern.length());
+        return found;
+    }
+
+    private int find() {
+        int m = pattern.length();
+        for (;;) {
+            if (window != null) {
+                // a match starting in the carry
+                int offset = start + lo - carry.length();
+                int i = window.indexOf(pattern, Math.max(0, min - offset));
+                if (i >= 0 && i < carry.length()) return (offset + i < to) ? offset + i : -1;
+                window = null;
+            }
+            int i = text.indexOf(pattern, Math.min(hi, Math.max(lo, min - start)), hi);
+            if (i >= 0) return (start + i < to) ? start + i : -1;
+
+            // no match starting before the end of the leaf can follow
+            if (start + hi - (m - 1) >= to || !leaves.next()) return -1;
+            carry = tail(carry, text, lo, hi, m - 1);
+            enter();
+            if (!carry.isEmpty()) {
+                window = carry.concat(text.substring(lo, Math.min(hi, lo + m - 1)));
+            }
+        }
+    }
+
+    private void enter() {
+        text = leaves.text();
+        lo = leaves.offset();
+        hi = lo + leaves.length();
+        start = leaves.start() - lo;
+    }
+
+    /**
+     * Get the index of the last match starting at or before the index.
+     * @param root the root node
+     * @param pattern the non-empty pattern
+     * @param fromIndex the maximum start of the match
+     * @return the index of the match, or {@code -1} if not found
+     */
+    static int lastIndexOf(Node root, String pattern, int fromIndex) {
+        int m = pattern.length();
+        int max = Math.min(fromIndex, root.totalLength() - m);
+        if (max < 0) return -1;
+
+        // from the leaf of the last char of the last possible match, backward
+        LeafCursor leaves = new LeafCursor(root);
+        leaves.seek(max + m - 1);
+        String carry = "";
+        do {
+            String text = leaves.text();
+            int lo = leaves.offset();
+            int hi = lo + leaves.length();
+            int start = leaves.start() - lo;
+            if (!carry.isEmpty()) {
+                // a match ending in the carry
+                String head = text.substring(Math.max(lo, hi - (m - 1)), hi);
+                int offset = start + hi - head.length();
+                int i = head.concat(carry).lastIndexOf(pattern, max - offset);
+                if (i >= 0 && i + m > head.length()) return offset + i;
+            }
+            int i = lastIndexOf(text, lo, hi, pattern, max - start);
+            if (i >= 0) return start + i;
+            carry = head(text, lo, hi, carry, m - 1);
+        } while (leaves.previous());
+        return -1;
+    }
+
+    /**
+     * Get the starts of the leftmost non-overlapping matches.
+     * Large trees are searched over the common fork-join pool, by subtree.
+     * @param root the root node
+     * @param pattern the non-empty pattern
+     * @return the starts of the matches
+     */
+    static int[] findAll(Node root, String pattern) {
+        if (root.totalLength() < RopeBuilder.PARALLEL_THRESHOLD) {
+            return toArray(new Search(root, pattern, 0, root.totalLength(), false));
+        }
+        // all the matches in parallel, then the leftmost ones of the overlapping matches
+        int[] all = ForkJoinPool.commonPool().invoke(new Find(root, root, 0, pattern));
+        int n = 0;
+        int end = 0;
+        for (int p : all) {
+            if (p >= end) {
+                all[n++] = p;
+                end = p + pattern.length();
+            }
+        }
+        return Arrays.copyOf(all, n);
+    }
+
+    private static final class Find extends RecursiveTask<int[]> {
+
+        private final Node root;
+        private final Node node;
+        private final int offset;
+        private final String pattern;
+
+        Find(Node root, Node node, int offset, String pattern) {
+            this.root = root;
+            this.node = node;
+            this.offset = offset;
+            this.pattern = pattern;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (node.totalLength() < RopeBuilder.PARALLEL_THRESHOLD || node.childCount() == 0) {
+                // the matches starting in the subtree, which may end in the following ones
+                return toArray(new Search(root, pattern, offset, offset + node.totalLength(), true));
+            }
+            Find[] tasks = new Find[node.childCount()];
+            int childOffset = offset;
+            for (int i = 0; i < tasks.length; i++) {
+                tasks[i] = new Find(root, node.child(i), childOffset, pattern);
+                childOffset += node.child(i).totalLength();
+            }
+            invokeAll(tasks);
+            return Arrays.stream(tasks).map(Find::join).flatMapToInt(Arrays::stream).toArray();
+        }
+    }
+
+    private static int lastIndexOf(String text, int lo, int hi, String pattern, int fromIndex) {
+        // the last of the forward matches, as String.indexOf is vectorized and lastIndexOf is not
+        int last = -1;
+        for (int i = text.indexOf(pattern, lo, hi); i >= 0 && i <= fromIndex;
+                i = text.indexOf(pattern, i + 1, hi)) {
+            last = i;
+        }
+        return last;
+    }
+
+    private static int[] toArray(Search search) {
+        return StreamSupport.intStream(Spliterators.spliteratorUnknownSize(search,
+            Spliterator.ORDERED | Spliterator.NONNULL), false).toArray();
+    }
+
+    private static String tail(String carry, String text, int lo, int hi, int n) {
+        // the last n chars of carry + text[lo, hi)
+        if (hi - lo >= n) return text.substring(hi - n, hi);
+        String s = carry.concat(text.substring(lo, hi));
+        return s.substring(Math.max(0, s.length() - n));
+    }
+
+    private static String head(String text, int lo, int hi, String carry, int n) {
+        // the first n chars of text[lo, hi) + carry
+        if (hi - lo >= n) return text.substring(lo, lo + n);
+        String s = text.substring(lo, hi).concat(carry);
+        return s.substring(0, Math.min(s.length(), n));
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import java.util.Objects;
+
+/**
+ * A transient (mutable) counterpart of a rope, for a burst of edits by a single thread.
+ * <p>
+ * The leaf around the edits is copied into a window buffer owned by this transient,
+ * and edited in place while the edits stay inside it. The window is written back to
+ * the rope as a single replace when an edit moves out of it, when it grows past a few
+ * leaves, or on {@link #freeze()}. So a burst of nearby edits copies no path of the tree
+ * and creates no rope per edit.
+ * <pre>
+ *   rope:   |abc|def|ghi|        window: "def" -> "dexyf"  (in place)
+ *   freeze: |abc|dexyf|ghi|      (one path copy)
+ * </pre>
+ * Ropes frozen from a transient are immutable, and are not affected by later edits.
+ * A transient is not thread-safe.
+ */
+public final class TransientRope {
+
+    // the window size above which the window is written back
+    private final int maxWindow;
+    private final StringBuilder window;
+    private Rope rope;
+    private int windowStart;
+    private int windowLength;
+    private boolean open;
+    private boolean modified;
+
+    TransientRope(Rope rope) {
+        this.rope = Objects.requireNonNull(rope);
+        this.maxWindow = 4 * rope.leafPolicy().maxSize();
+        this.window = new StringBuilder();
+    }
+
+    public TransientRope insert(int index, CharSequence text) {
+        Objects.checkIndex(index, length() + 1);
+        if (text.isEmpty()) return this;
+        if (text.length() >= maxWindow || !moveTo(index, index)) {
+            // too large for the window, inserted into the tree as it is
+            flush();
+            rope = rope.insert(index, text.toString());
+            return this;
+        }
+        window.insert(index - windowStart, text);
+        modified = true;
+        if (window.length() > maxWindow) flush();
+        return this;
+    }
+
+    public TransientRope delete(int start, int end) {
+        Objects.checkFromToIndex(start, end, length());
+        if (start == end) return this;
+        if (!moveTo(start, end)) {
+            // across the window, deleted from the tree
+            flush();
+            rope = rope.delete(start, end);
+            return this;
+        }
+        window.delete(start - windowStart, end - windowStart);
+        modified = true;
+        return this;
+    }
+
+    public TransientRope replace(int start, int end, CharSequence text) {
+        return delete(start, end).insert(start, text);
+    }
+
+    public TransientRope append(CharSequence text) {
+        return insert(length(), text);
+    }
+
+    public int length() {
+        return open ? rope.length() - windowLength + window.length() : rope.length();
+    }
+
+    public char charAt(int index) {
+        Objects.checkIndex(index, length());
+        if (!open || index < windowStart) return rope.charAt(index);
+        return (index < windowStart + window.length())
+            ? window.charAt(index - windowStart)
+            : rope.charAt(index - window.length() + windowLength);
+    }
+
+    /**
+     * Get the immutable rope of the edits so far.
+     * This is O(1) when the window is unchanged, and a single replace of the window otherwise.
+     * @return the rope
+     */
+    public Rope freeze() {
+        flush();
+        return rope;
+    }
+
+    @Override
+    public String toString() {
+        return freeze().toString();
+    }
+
+    private boolean moveTo(int start, int end) {
+        // open the window at the leaf containing start, if the range is not in the current one
+        if (!open || start < windowStart || end > windowStart + window.length()) {
+            flush();
+            LeafCursor cursor = new LeafCursor(rope.root());
+            cursor.seek(start);
+            windowStart = cursor.start();
+            windowLength = cursor.length();
+            window.append(cursor.text(), cursor.offset(), cursor.offset() + windowLength);
+            open = true;
+        }
+        return end <= windowStart + window.length();
+    }
+
+    private void flush() {
+        if (!open) return;
+        if (modified) {
+            rope = rope.replace(windowStart, windowStart + windowLength, window.toString());
+        }
+        window.setLength(0);
+        open = false;
+        modified = false;
+    }
+
+}
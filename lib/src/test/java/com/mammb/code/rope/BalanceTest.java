@@ -0,0 +1,208 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceTest {
+
+    @Test
+    void depthBoundedJoinsSpine() {
+        // right spine: a -> b -> c -> d -> e
+        Node spine = new Node.Leaf("e");
+        for (String s : new String[] { "d", "c", "b", "a" }) {
+            spine = new Node.Branch(new Node.Leaf(s), spine);
+        }
+        assertEquals(4, spine.depth());
+
+        Node balanced = Balance.depthBounded().apply(spine);
+        assertEquals(3, balanced.depth());
+        assertEquals("abcde", text(balanced));
+    }
+
+    @Test
+    void depthBoundedRebuildsDegenerateTree() {
+        Node spine = new Node.Leaf("x");
+        for (int i = 0; i < 100; i++) {
+            spine = new Node.Branch(spine, new Node.Leaf("x"));
+        }
+        Node balanced = Balance.depthBounded().apply(spine);
+        assertEquals(101, balanced.totalLength());
+        assertEquals(7, balanced.depth());
+    }
+
+    @Test
+    void depthBoundedEdits() {
+        var random = new Random(1);
+        Rope rope = new Rope("", new LeafPolicy(0, 8), Balance.depthBounded());
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            if (!expected.isEmpty() && random.nextInt(3) == 0) {
+                int start = random.nextInt(expected.length());
+                int end = Math.min(expected.length(), start + 1 + random.nextInt(10));
+                rope = rope.delete(start, end);
+                expected.delete(start, end);
+            } else {
+                int at = random.nextInt(expected.length() + 1);
+                String str = Integer.toString(i);
+                rope = rope.insert(at, str);
+                expected.insert(at, str);
+            }
+        }
+        assertEquals(expected.toString(), rope.toString());
+        assertDepthBound(rope);
+    }
+
+    @Test
+    void depthBoundedStress() {
+        var random = new Random(1);
+        Rope rope = new Rope("", new LeafPolicy(4, 32), Balance.depthBounded());
+        for (int i = 0; i < 1_000_000; i++) {
+            int length = rope.length();
+            if (length > 0 && random.nextInt(3) == 0) {
+                int start = random.nextInt(length);
+                rope = rope.delete(start, Math.min(length, start + 1 + random.nextInt(20)));
+            } else if (random.nextInt(4) == 0) {
+                // append-heavy workload
+                rope = rope.insert(length, "y".repeat(1 + random.nextInt(20)));
+            } else {
+                rope = rope.insert(random.nextInt(length + 1), "x".repeat(1 + random.nextInt(20)));
+            }
+            if (i % 1000 == 0) {
+                assertDepthBound(rope);
+            }
+        }
+        assertDepthBound(rope);
+    }
+
+    @Test
+    void wideBuildsBTree() {
+        Rope rope = new Rope("x".repeat(512 * 100), LeafPolicy.DEFAULT, Balance.wide(8));
+        // 100 leaves -> 13 nodes of 7 or 8 leaves -> 2 nodes -> root
+        var root = assertInstanceOf(Node.Wide.class, rope.root());
+        assertEquals(3, root.depth());
+        assertEquals(2, root.children().length);
+        assertEquals(512 * 100, root.totalLength());
+        assertUniformDepth(root, 8);
+    }
+
+    @Test
+    void wideEdits() {
+        var random = new Random(1);
+        Rope rope = new Rope("", new LeafPolicy(0, 8), Balance.wide(4));
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            if (!expected.isEmpty() && random.nextInt(3) == 0) {
+                int start = random.nextInt(expected.length());
+                int end = Math.min(expected.length(), start + 1 + random.nextInt(10));
+                rope = rope.delete(start, end);
+                expected.delete(start, end);
+            } else {
+                int at = random.nextInt(expected.length() + 1);
+                String str = i + "\n";
+                rope = rope.insert(at, str);
+                expected.insert(at, str);
+            }
+            if (i % 1000 == 0) {
+                assertUniformDepth(rope.root(), 4);
+            }
+        }
+        String text = expected.toString();
+        assertEquals(text, rope.toString());
+        assertEquals(text, text(rope.root()));
+        for (int i = 0; i < text.length(); i += 97) {
+            assertEquals(text.charAt(i), rope.charAt(i));
+            assertEquals(text.substring(0, i).chars().filter(c -> c == '\n').count(), rope.lineAt(i));
+        }
+        assertEquals(text.indexOf('\n') + 1, rope.lineStart(1));
+        assertUniformDepth(rope.root(), 4);
+        assertDepthBound(rope);
+    }
+
+    @Test
+    void wideRefillsUnderfullNodes() {
+        // splits and the merges of undersized leaves leave nodes underfull on their way
+        var random = new Random(2);
+        String text = "0123456789\n".repeat(5_000);
+        Rope rope = Rope.of(text, new LeafPolicy(4, 16), Balance.wide(8));
+        StringBuilder expected = new StringBuilder(text);
+        for (int i = 0; i < 2_000; i++) {
+            int start = random.nextInt(expected.length());
+            int end = Math.min(expected.length(), start + random.nextInt(40));
+            if (i % 2 == 0) {
+                rope = rope.delete(start, end);
+                expected.delete(start, end);
+            } else {
+                rope = rope.subSequence(0, start).concat(rope.subSequence(end, rope.length()));
+                expected.delete(start, end);
+            }
+            if (i % 100 == 0) {
+                assertUniformDepth(rope.root(), 8);
+            }
+        }
+        assertEquals(expected.toString(), rope.toString());
+        assertUniformDepth(rope.root(), 8);
+    }
+
+    @Test
+    void wideRejectsSmallFanout() {
+        assertThrows(IllegalArgumentException.class, () -> Balance.wide(2));
+    }
+
+    private static void assertUniformDepth(Node root, int maxChildren) {
+        assertUniformDepth(root, 2, maxChildren);
+    }
+
+    private static void assertUniformDepth(Node node, int minChildren, int maxChildren) {
+        if (node instanceof Node.Wide wide) {
+            int n = wide.children().length;
+            assertTrue(n >= minChildren && n <= maxChildren, "children " + n + " of " + maxChildren);
+            for (Node child : wide.children()) {
+                assertEquals(wide.depth() - 1, child.depth());
+                assertUniformDepth(child, (maxChildren + 1) / 2, maxChildren);
+            }
+        } else {
+            // a leaf or a slice
+            assertEquals(0, node.childCount());
+        }
+    }
+
+    private static void assertDepthBound(Rope rope) {
+        // log_phi(length) + 1
+        int bound = (int) (Math.log(Math.max(rope.length(), 1)) / Math.log((1 + Math.sqrt(5)) / 2)) + 1;
+        assertTrue(rope.root().depth() <= bound,
+            "depth " + rope.root().depth() + " exceeds " + bound + " for length " + rope.length());
+    }
+
+    private static String text(Node node) {
+        return switch (node) {
+            case Node.Leaf leaf -> leaf.text();
+            case Node.Slice slice -> slice.text();
+            case Node.Mapped mapped -> mapped.decode().text();
+            case Node.Branch branch -> text(branch.left()) + text(branch.right());
+            case Node.Wide wide -> {
+                StringBuilder sb = new StringBuilder();
+                for (Node child : wide.children()) sb.append(text(child));
+                yield sb.toString();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.BreakIterator;
+import java.text.CharacterIterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorTest {
+
+    @Test
+    void forward() {
+        String text = "0123456789".repeat(200);
+        Cursor cursor = new Rope(text, new LeafPolicy(0, 7)).cursor(0);
+        StringBuilder sb = new StringBuilder();
+        while (cursor.hasNext()) {
+            sb.append(cursor.nextChar());
+        }
+        assertEquals(text, sb.toString());
+        assertEquals(CharacterIterator.DONE, cursor.current());
+    }
+
+    @Test
+    void backward() {
+        String text = "0123456789".repeat(200);
+        Cursor cursor = new Rope(text, new LeafPolicy(0, 7)).cursor(text.length());
+        StringBuilder sb = new StringBuilder();
+        while (cursor.hasPrevious()) {
+            sb.append(cursor.previous());
+        }
+        assertEquals(new StringBuilder(text).reverse().toString(), sb.toString());
+        assertEquals(CharacterIterator.DONE, cursor.previous());
+    }
+
+    @Test
+    void startAtOffset() {
+        Rope rope = new Rope("abc").concat(new Rope("de")).concat(new Rope("f"));
+        Cursor cursor = rope.cursor(3);
+        assertEquals('d', cursor.current());
+        assertEquals('c', cursor.previous());
+        assertEquals('d', cursor.next());
+        assertEquals('e', cursor.next());
+        assertEquals('f', cursor.next());
+        assertEquals(CharacterIterator.DONE, cursor.next());
+        assertEquals(6, cursor.getIndex());
+
+        assertEquals('a', cursor.first());
+        assertEquals('f', cursor.last());
+        assertEquals('e', cursor.setIndex(4));
+        assertThrows(IllegalArgumentException.class, () -> cursor.setIndex(7));
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.cursor(7));
+    }
+
+    @Test
+    void skipsEmptyLeaves() {
+        // |a| |b| |c| EMPTY
+        Node root = Node.of(List.of(new Node.Leaf("a"), new Node.Leaf("b"), new Node.Leaf("c")));
+        Cursor cursor = new Cursor(root, 0);
+        assertEquals('a', cursor.nextChar());
+        assertEquals('b', cursor.nextChar());
+        assertEquals('c', cursor.nextChar());
+        assertFalse(cursor.hasNext());
+        assertEquals('c', cursor.previous());
+        assertEquals('b', cursor.previous());
+    }
+
+    @Test
+    void wide() {
+        String text = "0123456789".repeat(200);
+        Rope rope = new Rope(text, new LeafPolicy(0, 7), Balance.wide(4));
+        Cursor cursor = rope.cursor(1000);
+        for (int i = 1000; i < text.length(); i++) {
+            assertEquals(text.charAt(i), cursor.nextChar());
+        }
+        for (int i = text.length() - 1; i >= 0; i--) {
+            assertEquals(text.charAt(i), cursor.previous());
+        }
+    }
+
+    @Test
+    void breakIterator() {
+        Rope rope = new Rope("The quick ").concat(new Rope("brown fox"));
+        BreakIterator words = BreakIterator.getWordInstance();
+        words.setText(rope.cursor(0));
+        assertEquals(0, words.first());
+        assertEquals(3, words.next());
+        assertEquals(4, words.next());
+        assertEquals(9, words.next());
+        assertEquals(10, words.next());
+        assertEquals(15, words.next());
+    }
+
+}
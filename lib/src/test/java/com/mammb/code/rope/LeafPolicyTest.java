@@ -0,0 +1,41 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeafPolicyTest {
+
+    @Test
+    void shouldMerge() {
+        var policy = new LeafPolicy(4, 8);
+        assertTrue(policy.shouldMerge(3, 5));
+        assertTrue(policy.shouldMerge(5, 0));
+        assertFalse(policy.shouldMerge(4, 4));
+        assertFalse(policy.shouldMerge(3, 6));
+        assertFalse(new LeafPolicy(0, 8).shouldMerge(1, 1));
+    }
+
+    @Test
+    void invalid() {
+        assertThrows(IllegalArgumentException.class, () -> new LeafPolicy(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new LeafPolicy(-1, 8));
+        assertThrows(IllegalArgumentException.class, () -> new LeafPolicy(9, 8));
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The retained bytes of a rope, relative to the String of the same text on the running JVM.
+ */
+class MemoryTest {
+
+    private static final int MB = 1 << 20;
+
+    private static final String LINE = "    return switch (node) { case Leaf leaf -> leaf; };\n";
+
+    @Test
+    void ascii() {
+        String text = text(LINE);
+        // one byte per char, plus the nodes
+        assertSmaller(1.3, size(new Rope(text)), size(text));
+        assertSmaller(1.3, size(Rope.of(text)), size(text));
+    }
+
+    @Test
+    void mostlyAscii() {
+        // a comment beyond Latin-1 every 30 lines
+        String text = text(LINE.repeat(30) + "    // \u30ce\u30fc\u30c9\u3092\u8fd4\u3059\n");
+        // the Latin-1 runs are kept out of the UTF-16 leaves, so close to an ascii text
+        assertSmaller(1.5, size(new Rope(text)), size(text(LINE)));
+    }
+
+    @Test
+    void utf16() {
+        String text = text("\u3042\u3044\u3046\u3048\u304a\n");
+        assertSmaller(1.2, size(new Rope(text)), size(text));
+    }
+
+    private static void assertSmaller(double ratio, long bytes, long baseline) {
+        assertTrue(bytes < ratio * baseline, bytes + " bytes against " + baseline);
+    }
+
+    private static long size(Object object) {
+        return GraphLayout.parseInstance(object).totalSize();
+    }
+
+    private static String text(String line) {
+        return line.repeat(MB / line.length() + 1).substring(0, MB);
+    }
+
+}
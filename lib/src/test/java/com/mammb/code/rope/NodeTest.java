@@ -17,6 +17,8 @@ package com.mammb.code.rope;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -61,6 +63,144 @@ class NodeTest {
         assertEquals(Node.EMPTY, node3.right());
     }
 
+    @Test
+    void branchMetrics() {
+
+        //        (5)
+        //       /   \
+        //     (3)   |ghijk|
+        //    /   \
+        // |abc|  |de|
+        var branch = new Node.Branch(
+            new Node.Branch(new Node.Leaf("abc"), new Node.Leaf("de")),
+            new Node.Leaf("ghijk"));
+
+        assertEquals(5, branch.weight());
+        assertEquals(10, branch.totalLength());
+        assertEquals(2, branch.depth());
+        assertEquals(1, branch.left().depth());
+        assertEquals(0, branch.right().depth());
+    }
+
+    @Test
+    void newlines() {
+        var branch = new Node.Branch(
+            new Node.Branch(new Node.Leaf("a\nb"), new Node.Leaf("\n")),
+            new Node.Leaf("c\r\nd\n"));
+
+        assertEquals(1, ((Node.Branch) branch.left()).left().newlines());
+        assertEquals(2, branch.left().newlines());
+        assertEquals(4, branch.newlines());
+    }
+
+    @Test
+    void utf8Metrics() {
+        var branch = new Node.Branch(
+            new Node.Branch(new Node.Leaf("a\u00e9"), new Node.Leaf("\u3042")),
+            new Node.Wide(new Node.Leaf("\uD83D\uDE00"), new Node.Leaf("\uD83D")));
+        assertEquals(1 + 2 + 3 + 4 + 1, branch.utf8Length());
+        assertEquals(5, branch.codePoints());
+    }
+
+    @Test
+    void digest() {
+        String text = "The quick brown fox\n\u3042\uD83D\uDE00";
+        long expected = 0;
+        for (char c : text.toCharArray()) expected = expected * Node.BASE + c;
+        assertEquals(expected, Node.digestChars(text, 0, text.length()));
+        assertEquals(expected, Node.of(text, 3).digest());
+        assertEquals(expected, new Node.Wide(new Node.Leaf("The q"), new Node.Leaf(text.substring(5))).digest());
+        assertEquals(Node.concat(Node.digestChars(text, 0, 7), Node.digestChars(text, 7, 20), 13),
+            Node.digestChars(text, 0, 20));
+        assertEquals(0, Node.EMPTY.digest());
+    }
+
+    @Test
+    void slice() {
+        String text = "line\n\u3042\uD83D\uDE00".repeat(20);
+        Node.Leaf leaf = new Node.Leaf(text);
+        for (int index = 1; index < text.length(); index++) {
+            Node[] parts = Node.Slice.split(text, 0, leaf, index);
+            for (int p = 0; p < 2; p++) {
+                String part = (p == 0) ? text.substring(0, index) : text.substring(index);
+                Node.Leaf expected = new Node.Leaf(part);
+                assertEquals(part, Rope.text(parts[p]));
+                assertEquals(expected.newlines(), parts[p].newlines());
+                assertEquals(expected.utf8Length(), parts[p].utf8Length());
+                assertEquals(expected.codePoints(), parts[p].codePoints());
+                assertEquals(expected.digest(), parts[p].digest());
+            }
+        }
+
+        // the large part shares the string, and the small one is copied
+        Node[] parts = Node.Slice.split(text, 0, leaf, 10);
+        assertInstanceOf(Node.Leaf.class, parts[0]);
+        Node.Slice slice = assertInstanceOf(Node.Slice.class, parts[1]);
+        assertSame(text, slice.base());
+        Node[] again = Node.Slice.split(text, slice.offset(), slice, 50);
+        assertSame(text, ((Node.Slice) again[0]).base());
+        assertEquals(text.substring(60), Rope.text(again[1]));
+    }
+
+    @Test
+    void inverse() {
+        assertEquals(1, Node.BASE * Node.inverse(Node.BASE));
+        assertEquals(1, Node.power(1234) * Node.inverse(Node.power(1234)));
+    }
+
+    @Test
+    void boundary() {
+        String text = "a\uD83D\uDE00b";
+        assertEquals(1, Node.boundary(text, 1));
+        assertEquals(3, Node.boundary(text, 2));
+        assertEquals(3, Node.boundary(text, 3));
+        // a pair is never split by the chunking
+        Node node = Node.of(text.repeat(3), 2);
+        assertEquals(Character.codePointCount(text.repeat(3), 0, 12), node.codePoints());
+        assertEquals(text.repeat(3).getBytes(StandardCharsets.UTF_8).length, node.utf8Length());
+    }
+
+    @Test
+    void wide() {
+        var wide = new Node.Wide(
+            new Node.Leaf("abc"), new Node.Leaf("de"), new Node.Leaf("f\n"), new Node.Leaf("ghijk"));
+
+        assertArrayEquals(new int[] { 0, 3, 5, 7, 12 }, wide.offsets());
+        assertEquals(3, wide.weight());
+        assertEquals(12, wide.totalLength());
+        assertEquals(1, wide.depth());
+        assertEquals(1, wide.newlines());
+
+        assertEquals(0, wide.childAt(0));
+        assertEquals(0, wide.childAt(2));
+        assertEquals(1, wide.childAt(3));
+        assertEquals(1, wide.childAt(4));
+        assertEquals(3, wide.childAt(11));
+        assertEquals(3, wide.childAt(12));
+
+        assertEquals(Node.EMPTY, wide.range(1, 1));
+        assertEquals(wide.children()[2], wide.range(2, 3));
+        assertEquals(4, wide.range(1, 3).totalLength());
+    }
+
+    @Test
+    void chunk() {
+        String head = "a".repeat(200);
+        String tail = "b".repeat(150);
+        List<String> leaves = new ArrayList<>();
+        Node.chunk(head + "\u3042x\u3044" + tail, 0, 353, leaf -> leaves.add(leaf.text()));
+        assertEquals(List.of(head, "\u3042x\u3044", tail), leaves);
+
+        // a short Latin-1 run stays in the UTF-16 leaf
+        leaves.clear();
+        Node.chunk("abc\u3042" + tail, 0, 154, leaf -> leaves.add(leaf.text()));
+        assertEquals(List.of("abc\u3042", tail), leaves);
+
+        leaves.clear();
+        Node.chunk("xx" + head + "yy", 2, 202, leaf -> leaves.add(leaf.text()));
+        assertEquals(List.of(head), leaves);
+    }
+
     private static Node.Branch left(Node node) {
         Node.Branch branch = (Node.Branch) node;
         return (Node.Branch) branch.left();
@@ -17,13 +17,17 @@ package com.mammb.code.rope;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class PrettyPrinterTest {
 
     @Test
     void toDot() {
-        Rope rope = new Rope()
+        // disable leaf merging to keep the shape of the concatenation
+        Rope rope = new Rope("", new LeafPolicy(0, 512))
             .concat(new Rope("aa"))
             .concat(new Rope("bbb"))
             .concat(new Rope("cccc"));
@@ -45,4 +49,26 @@ class PrettyPrinterTest {
             PrettyPrinter.toDot(rope));
     }
 
+    @Test
+    void toDotDepthLimited() throws IOException {
+        Rope rope = new Rope("", new LeafPolicy(0, 512))
+            .concat(new Rope("aa"))
+            .concat(new Rope("bbb"))
+            .concat(new Rope("cccc"));
+
+        StringWriter out = new StringWriter();
+        PrettyPrinter.toDot(rope, out, 1);
+        assertEquals(
+            """
+            digraph G {
+              n0 [label="root\\n5"];
+              n1 [label="l\\n... length:5 depth:1", style=dashed];
+              n0 -> n1;
+              n2 [label="r\\ncccc", shape=box];
+              n0 -> n2;
+            }
+            """,
+            out.toString());
+    }
+
 }
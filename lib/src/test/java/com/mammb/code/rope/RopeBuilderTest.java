@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RopeBuilderTest {
+
+    @Test
+    void append() {
+        Rope piece = new Rope("x".repeat(100), new LeafPolicy(0, 8));
+        Rope rope = Rope.builder(new LeafPolicy(0, 8), Balance.weightBased())
+            .append('a')
+            .append("bcdefghijklmnopqrstuvwxyz")
+            .append("0123456789", 2, 5)
+            .append(piece)
+            .append(new Rope("yz"))
+            .build();
+        assertEquals("abcdefghijklmnopqrstuvwxyz234" + "x".repeat(100) + "yz", rope.toString());
+        // the leaves of the appended rope are shared
+        assertSame(leaf(piece.root(), 0), leaf(rope.root(), 29));
+    }
+
+    @Test
+    void noPaddingLeaves() {
+        Rope rope = Rope.builder(new LeafPolicy(0, 4), Balance.weightBased())
+            .append("a".repeat(4 * 37 + 1))
+            .build();
+        assertEquals(4 * 37 + 1, rope.length());
+        assertEquals(38, leaves(rope.root()));
+        // 38 leaves fit in a depth of 6, and the weight-based rotations add at most one level
+        assertTrue(rope.root().depth() <= 7, "depth " + rope.root().depth());
+    }
+
+    @Test
+    void empty() {
+        assertEquals("", Rope.builder().build().toString());
+        assertEquals("", Rope.of("").toString());
+    }
+
+    @Test
+    void of() {
+        String text = "0123456789\n".repeat(100_000);
+        Rope rope = Rope.of(text, new LeafPolicy(0, 100), Balance.weightBased());
+        assertEquals(text, rope.toString());
+        assertEquals(100_001, rope.lineCount());
+        assertEquals(11_000, leaves(rope.root()));
+        assertEquals(14, rope.root().depth());
+        assertEquals(text.substring(500, 1000), rope.subSequence(500, 1000).toString());
+    }
+
+    @Test
+    void ofParallel() {
+        String text = "0123456789\n".repeat(RopeBuilder.PARALLEL_THRESHOLD / 4);
+        for (Balance balance : new Balance[] { Balance.weightBased(), Balance.depthBounded(), Balance.wide(16) }) {
+            Rope rope = Rope.of(text, LeafPolicy.DEFAULT, balance);
+            assertEquals(text, rope.toString());
+            assertEquals(text.length(), rope.length());
+            assertEquals(text.charAt(2_000_001), rope.charAt(2_000_001));
+            assertEquals(text.substring(1_999_990), rope.split(1_999_990)[1].toString());
+        }
+    }
+
+    private static int leaves(Node node) {
+        if (node.childCount() == 0) return node.isEmpty() ? 0 : 1;
+        int count = 0;
+        for (int i = 0; i < node.childCount(); i++) count += leaves(node.child(i));
+        return count;
+    }
+
+    private static Node leaf(Node node, int index) {
+        while (node.childCount() > 0) {
+            int i = 0;
+            while (index >= node.child(i).totalLength()) index -= node.child(i++).totalLength();
+            node = node.child(i);
+        }
+        return node;
+    }
+
+}
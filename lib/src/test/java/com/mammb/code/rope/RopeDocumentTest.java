@@ -0,0 +1,128 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RopeDocumentTest {
+
+    @Test
+    void concurrentWriters() throws Exception {
+        RopeDocument doc = new RopeDocument(new Rope("", new LeafPolicy(0, 16)));
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String s = String.valueOf((char) ('a' + t));
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (i % 2 == 0) doc.concat(Rope.of(s));
+                    else doc.insert(0, s);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) thread.join();
+
+        String text = doc.snapshot().toString();
+        assertEquals(4000, text.length());
+        for (char c = 'a'; c <= 'd'; c++) {
+            final char ch = c;
+            assertEquals(1000, text.chars().filter(x -> x == ch).count());
+        }
+    }
+
+    @Test
+    void rebase() {
+        RopeDocument doc = new RopeDocument(Rope.of("hello world"), Runnable::run);
+        Rope base = doc.snapshot();
+        doc.insert(0, ">> ");
+        doc.apply(base, List.of(Edit.replace(6, 11, "rope")));
+        assertEquals(">> hello rope", doc.snapshot().toString());
+
+        // an edit overlapping a concurrent change is rejected
+        Rope stale = doc.snapshot();
+        doc.delete(3, 9);
+        assertThrows(ConcurrentModificationException.class,
+            () -> doc.apply(stale, List.of(Edit.replace(6, 11, "X"))));
+        assertEquals(">> rope", doc.snapshot().toString());
+
+        // unchanged base applies as is
+        assertEquals(">> rope!", doc.apply(doc.snapshot(), List.of(Edit.insert(7, "!"))).toString());
+    }
+
+    @Test
+    void rebaseDistantChanges() {
+        RopeDocument doc = new RopeDocument(Rope.of("-".repeat(1000)), Runnable::run);
+        Rope base = doc.snapshot();
+        doc.insert(0, "a");
+        doc.insert(1001, "b");
+        doc.apply(base, List.of(Edit.insert(500, "z"), Edit.insert(1000, "y")));
+
+        String text = doc.snapshot().toString();
+        assertEquals(1004, text.length());
+        assertEquals("a" + "-".repeat(500) + "z" + "-".repeat(500) + "by", text);
+    }
+
+    @Test
+    void rebaseThroughUpdate() {
+        RopeDocument doc = new RopeDocument(Rope.of("0123456789"), Runnable::run);
+        Rope base = doc.snapshot();
+        doc.update(rope -> rope.insert(2, "ab").delete(8, 10));
+        // outside the diffed range
+        doc.apply(base, List.of(Edit.insert(0, "<"), Edit.insert(10, ">")));
+        assertEquals("<01ab234589>", doc.snapshot().toString());
+        // inside the diffed range
+        assertThrows(ConcurrentModificationException.class,
+            () -> doc.apply(base, List.of(Edit.insert(5, "x"))));
+    }
+
+    @Test
+    void rebaseOldBase() {
+        RopeDocument doc = new RopeDocument(Rope.of(""), Runnable::run);
+        Rope old = doc.snapshot();
+        Rope recent = null;
+        for (int i = 0; i < 1000; i++) {
+            if (i == 990) recent = doc.snapshot();
+            doc.concat(Rope.of("a"));
+        }
+        assertEquals("b" + "a".repeat(1000), doc.apply(recent, List.of(Edit.insert(0, "b"))).toString());
+        assertThrows(ConcurrentModificationException.class,
+            () -> doc.apply(old, List.of(Edit.insert(0, "c"))));
+    }
+
+    @Test
+    void listener() throws Exception {
+        RopeDocument doc = new RopeDocument(Rope.of("a"));
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Rope> first = new AtomicReference<>();
+        doc.addListener((before, after) -> {
+            first.compareAndSet(null, before);
+            if (after.length() == 101) latch.countDown();
+        });
+        for (int i = 0; i < 100; i++) doc.insert(1, "b");
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals("a", first.get().toString());
+    }
+
+}
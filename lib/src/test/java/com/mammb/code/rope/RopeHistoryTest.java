@@ -0,0 +1,114 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RopeHistoryTest {
+
+    @Test
+    void undoRedo() {
+        var random = new Random(8);
+        RopeHistory history = new RopeHistory(new Rope("0123456789\n".repeat(500), new LeafPolicy(0, 32)));
+        List<String> snapshots = new ArrayList<>(List.of(history.current().toString()));
+        for (int i = 0; i < 200; i++) {
+            Rope rope = history.current();
+            int start = random.nextInt(rope.length());
+            int end = Math.min(rope.length(), start + random.nextInt(20));
+            if (i % 2 == 0) {
+                history.apply(List.of(Edit.insert(0, "x"), Edit.replace(start, end, "ab\n")));
+            } else {
+                history.push(rope.delete(start, end).insert(start / 2, "yz"));
+            }
+            snapshots.add(history.current().toString());
+        }
+        assertEquals(201, history.size());
+
+        history.compact(3);
+        for (int i = 199; i >= 0; i--) {
+            assertEquals(snapshots.get(i), history.undo().toString());
+        }
+        assertFalse(history.canUndo());
+        assertThrows(IllegalStateException.class, history::undo);
+
+        history.compact(0);
+        for (int i = 1; i <= 200; i++) {
+            assertEquals(snapshots.get(i), history.redo().toString());
+        }
+        assertFalse(history.canRedo());
+        assertThrows(IllegalStateException.class, history::redo);
+        assertThrows(IllegalArgumentException.class, () -> history.compact(-1));
+    }
+
+    @Test
+    void newVersionDiscardsRedo() {
+        RopeHistory history = new RopeHistory(new Rope("abc"));
+        history.apply(List.of(Edit.insert(3, "d")));
+        history.apply(List.of(Edit.insert(4, "e")));
+        history.undo();
+        history.apply(List.of(Edit.delete(0, 1)));
+        assertEquals("bcd", history.current().toString());
+        assertEquals(List.of(Edit.delete(0, 1)), history.changes());
+        assertFalse(history.canRedo());
+        assertEquals(3, history.size());
+        assertEquals("abcd", history.undo().toString());
+    }
+
+    @Test
+    void limit() {
+        RopeHistory history = new RopeHistory(new Rope(""), 3);
+        for (char c = 'a'; c <= 'f'; c++) {
+            history.apply(List.of(Edit.insert(history.current().length(), String.valueOf(c))));
+            history.compact(0);
+        }
+        assertEquals(3, history.size());
+        assertEquals("abcde", history.undo().toString());
+        assertEquals("abcd", history.undo().toString());
+        assertFalse(history.canUndo());
+        assertEquals(List.of(), history.changes());
+        assertThrows(IllegalArgumentException.class, () -> new RopeHistory(new Rope(), 0));
+    }
+
+    @Test
+    void diff() {
+        var random = new Random(9);
+        Rope a = Rope.of("0123456789\n".repeat(20_000), new LeafPolicy(0, 64), Balance.depthBounded());
+        for (int i = 0; i < 200; i++) {
+            int start = random.nextInt(a.length());
+            int end = Math.min(a.length(), start + random.nextInt(100));
+            Rope b = (i % 2 == 0) ? a.replace(start, end, "abc") : a.delete(start, end);
+            List<Edit> diff = RopeHistory.diff(a, b);
+            assertEquals(b.toString(), a.apply(diff).toString());
+            // the changed range is found exactly, up to the chars repeated around it
+            assertTrue(diff.get(0).end() - diff.get(0).start() <= end - start, diff.toString());
+            a = b;
+        }
+        assertEquals(List.of(), RopeHistory.diff(a, a));
+        assertEquals(List.of(), RopeHistory.diff(a, new Rope(a.toString())));
+        assertEquals(List.of(Edit.replace(1, 2, "x")), RopeHistory.diff(new Rope("abc"), new Rope("axc")));
+        assertEquals(List.of(Edit.insert(3, "def")), RopeHistory.diff(new Rope("abc"), new Rope("abcdef")));
+        assertEquals(List.of(Edit.delete(0, 3)), RopeHistory.diff(new Rope("abc"), new Rope()));
+        // a repeated char is matched once
+        assertEquals(List.of(Edit.insert(2, "a")), RopeHistory.diff(new Rope("aa"), new Rope("aaa")));
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RopeIndexTest {
+
+    private static final Monoid<Long> LINE_FEEDS =
+        Monoid.of(0L, chunk -> chunk.chars().filter(c -> c == '\n').count(), Long::sum);
+
+    // the depth change and the minimum depth of the prefixes, of the brackets in a text
+    record Brackets(int delta, int min) { }
+
+    private static final Monoid<Brackets> BRACKETS = Monoid.of(new Brackets(0, 0), chunk -> {
+        int delta = 0;
+        int min = 0;
+        for (int i = 0; i < chunk.length(); i++) {
+            if (chunk.charAt(i) == '(') delta++;
+            if (chunk.charAt(i) == ')') min = Math.min(min, --delta);
+        }
+        return new Brackets(delta, min);
+    }, (l, r) -> new Brackets(l.delta() + r.delta(), Math.min(l.min(), l.delta() + r.min())));
+
+    @Test
+    void lines() {
+        Rope rope = new Rope("0123456789\n".repeat(10_000), new LeafPolicy(0, 64));
+        RopeIndex<Long> lines = RopeIndex.of(LINE_FEEDS);
+        assertEquals(10_000L, (long) lines.summary(rope));
+        assertEquals(3L, (long) lines.summary(rope, 5, 40));
+        for (int n : new int[] { 1, 2, 777, 9_999, 10_000 }) {
+            assertEquals(rope.lineStart(n), lines.seek(rope, s -> s >= n));
+        }
+        assertEquals(-1, lines.seek(rope, s -> s > 10_000));
+        assertEquals(0, lines.seek(rope, s -> s >= 0));
+        assertEquals(rope.lineStart(12), lines.seek(rope, 100, s -> s >= 3));
+    }
+
+    @Test
+    void matchingBracket() {
+        String text = "f(a, (b), g(c(d), (e)))(x)".repeat(500);
+        Rope rope = new Rope(text, new LeafPolicy(0, 7), Balance.depthBounded());
+        RopeIndex<Brackets> brackets = RopeIndex.of(BRACKETS);
+        for (int open = text.indexOf('('); open >= 0; open = text.indexOf('(', open + 1)) {
+            // the matching bracket ends the shortest range after the open one that closes it
+            int close = brackets.seek(rope, open + 1, s -> s.min() < 0) - 1;
+            assertEquals(')', text.charAt(close));
+            assertEquals(new Brackets(0, 0), brackets.summary(rope, open, close + 1));
+        }
+    }
+
+    @Test
+    void editsReuseSummaries() {
+        var measured = new AtomicInteger();
+        Monoid<Long> counting = Monoid.of(0L, chunk -> {
+            measured.incrementAndGet();
+            return LINE_FEEDS.measure(chunk);
+        }, Long::sum);
+        RopeIndex<Long> lines = RopeIndex.of(counting);
+
+        var random = new Random(4);
+        Rope rope = Rope.of("0123456789\n".repeat(20_000), new LeafPolicy(0, 64), Balance.weightBased());
+        StringBuilder expected = new StringBuilder(rope);
+        assertEquals(20_000L, (long) lines.summary(rope));
+        for (int i = 0; i < 200; i++) {
+            int index = random.nextInt(expected.length());
+            if (i % 3 == 0) {
+                rope = rope.delete(index, Math.min(expected.length(), index + 50));
+                expected.delete(index, Math.min(expected.length(), index + 50));
+            } else {
+                rope = rope.insert(index, "a\nb\n");
+                expected.insert(index, "a\nb\n");
+            }
+            measured.set(0);
+            assertEquals(expected.chars().filter(c -> c == '\n').count(), (long) lines.summary(rope));
+            // only the leaves under the new path are measured
+            assertTrue(measured.get() < 100, "measured " + measured.get());
+        }
+    }
+
+    @Test
+    void leavesMeasuredOnce() {
+        var measured = new AtomicInteger();
+        Monoid<Long> counting = Monoid.of(0L, chunk -> {
+            measured.incrementAndGet();
+            return LINE_FEEDS.measure(chunk);
+        }, Long::sum);
+        RopeIndex<Long> lines = RopeIndex.of(counting);
+
+        String text = "0123456789\n".repeat(20_000);
+        Rope rope = Rope.of(text, new LeafPolicy(0, 64), Balance.wide(8));
+        assertEquals(20_000L, (long) lines.summary(rope));
+        long expected = text.substring(100, text.length() - 100).chars().filter(c -> c == '\n').count();
+        measured.set(0);
+        // the whole leaves are memoized, and only the partial ones at both ends measured again
+        assertEquals(expected, (long) lines.summary(rope, 100, text.length() - 100));
+        assertEquals(2, measured.get());
+
+        // the untouched leaves next to an edit are not measured again, only the new ones
+        rope = rope.insert(text.length() / 2, "a\n");
+        measured.set(0);
+        assertEquals(20_001L, (long) lines.summary(rope));
+        assertTrue(measured.get() <= 3, "measured " + measured.get());
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RopeJournalTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void reopen() throws IOException {
+        Path dir = temp();
+        String expected;
+        try (RopeJournal journal = RopeJournal.open(dir, new Rope("hello"), RopeJournal.Options.DEFAULT)) {
+            journal.insert(5, " world");
+            journal.delete(0, 1);
+            journal.insert(0, "H\uD83D\uDE00");
+            expected = journal.rope().toString();
+        }
+        try (RopeJournal journal = RopeJournal.open(dir)) {
+            assertEquals(expected, journal.rope().toString());
+            assertEquals("H\uD83D\uDE00ello world", expected);
+        }
+    }
+
+    @Test
+    void tornTail() throws IOException {
+        Path dir = temp();
+        String committed;
+        try (RopeJournal journal = RopeJournal.open(dir)) {
+            for (int i = 0; i < 100; i++) journal.insert(i, "x");
+            journal.commit().join();
+            committed = journal.rope().toString();
+        }
+        // a crash in the middle of a record, and a preallocated zero tail
+        Path log = files(dir, ".log").get(0);
+        byte[] bytes = Files.readAllBytes(log);
+        Files.write(log, new byte[] { 0, 0, 0, 40, 1, 2, 3 }, StandardOpenOption.APPEND);
+        try (RopeJournal journal = RopeJournal.open(dir)) {
+            assertEquals(committed, journal.rope().toString());
+            journal.insert(0, "y");
+        }
+        Files.write(log, new byte[64], StandardOpenOption.APPEND);
+        try (RopeJournal journal = RopeJournal.open(dir)) {
+            assertEquals("y" + committed, journal.rope().toString());
+        }
+        assertTrue(Files.size(log) > bytes.length);
+    }
+
+    @Test
+    void checkpoint() throws IOException {
+        Path dir = temp();
+        var options = new RopeJournal.Options(Duration.ofMillis(1), 4096);
+        var random = new Random(3);
+        String expected;
+        try (RopeJournal journal = RopeJournal.open(dir, new Rope(), options)) {
+            for (int i = 0; i < 2000; i++) {
+                Rope rope = journal.rope();
+                int at = random.nextInt(rope.length() + 1);
+                if (i % 3 == 2) journal.delete(at, Math.min(rope.length(), at + 5));
+                else journal.insert(at, "abc\n");
+                if (i % 100 == 0) journal.commit().join();
+            }
+            journal.checkpoint().join();
+            expected = journal.rope().toString();
+        }
+        // the journals before the last checkpoint are deleted
+        assertEquals(1, files(dir, ".log").size());
+        try (RopeJournal journal = RopeJournal.open(dir)) {
+            assertEquals(expected, journal.rope().toString());
+        }
+    }
+
+    @Test
+    void concurrentWriters() throws Exception {
+        Path dir = temp();
+        String expected;
+        try (RopeJournal journal = RopeJournal.open(dir)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        journal.insert(0, "ab");
+                        journal.commit().join();
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) thread.join();
+            expected = journal.rope().toString();
+        }
+        assertEquals(1600, expected.length());
+        try (RopeJournal journal = RopeJournal.open(dir)) {
+            assertEquals(expected, journal.rope().toString());
+        }
+    }
+
+    @Test
+    void commitWithoutInterval() throws Exception {
+        RopeJournal.Options options = new RopeJournal.Options(Duration.ofMinutes(1), 64L << 20);
+        try (RopeJournal journal = RopeJournal.open(temp(), new Rope(), options)) {
+            journal.insert(0, "a");
+            // an explicit commit or checkpoint does not wait for the interval
+            journal.commit().get(30, TimeUnit.SECONDS);
+            journal.insert(1, "b");
+            journal.checkpoint().get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void closed() throws IOException {
+        RopeJournal journal = RopeJournal.open(temp());
+        journal.close();
+        assertThrows(IllegalStateException.class, () -> journal.insert(0, "a"));
+        try (RopeJournal other = RopeJournal.open(temp())) {
+            // an invalid edit is not journaled
+            assertThrows(IndexOutOfBoundsException.class, () -> other.insert(1, "a"));
+            other.insert(0, "a");
+        }
+    }
+
+    private static List<Path> files(Path dir, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(suffix)).toList();
+        }
+    }
+
+    private Path temp() throws IOException {
+        return Files.createTempDirectory(tmp, "rope");
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RopeSnapshotTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void writeRead() throws IOException {
+        String text = "0123456789\n".repeat(300) + "\u3042\u3044\uD83D\uDE00".repeat(100) + "x\uD800y" + "tail";
+        Rope rope = new Rope(text, new LeafPolicy(0, 64));
+        Rope edited = rope.insert(1700, "inserted").delete(10, 20);
+        Path file = temp();
+        RopeSnapshot.write(file, List.of(rope, edited, new Rope()));
+
+        List<Rope> ropes = RopeSnapshot.read(file);
+        assertEquals(3, ropes.size());
+        assertEquals(text, ropes.get(0).toString());
+        assertEquals(edited.toString(), ropes.get(1).toString());
+        assertEquals("", ropes.get(2).toString());
+        assertEquals(new LeafPolicy(0, 64), ropes.get(0).leafPolicy());
+        for (int i = 3000; i < 3400; i++) {
+            assertEquals(text.charAt(i), ropes.get(0).charAt(i));
+        }
+
+        // the metrics are restored, and the shared subtrees are shared again
+        assertEquals(rope.digest(), ropes.get(0).digest());
+        assertEquals(rope.lineCount(), ropes.get(0).lineCount());
+        assertEquals(rope.root().depth(), ropes.get(0).root().depth());
+        assertEquals(RopeStats.of(edited, rope).shared(), RopeStats.of(ropes.get(1), ropes.get(0)).shared());
+
+        // the loaded ropes are editable
+        Rope loaded = ropes.get(0).insert(5, "ab").delete(3000, 3010);
+        assertEquals(new Rope(text).insert(5, "ab").delete(3000, 3010).toString(), loaded.toString());
+    }
+
+    @Test
+    void sharedOnce() throws IOException {
+        Rope rope = new Rope("abc".repeat(10_000), new LeafPolicy(0, 64));
+        Path one = temp();
+        Path two = temp();
+        RopeSnapshot.write(one, List.of(rope));
+        RopeSnapshot.write(two, List.of(rope, rope.insert(100, "x")));
+        assertTrue(Files.size(two) < Files.size(one) * 1.1);
+    }
+
+    @Test
+    void mappedSource() throws IOException {
+        Path source = temp();
+        String text = "line \u00e9\n".repeat(10_000);
+        Files.writeString(source, text, StandardCharsets.UTF_8);
+        Path file = temp();
+        RopeSnapshot.write(file, List.of(Rope.open(source, StandardCharsets.UTF_8)));
+        assertEquals(text, RopeSnapshot.read(file).get(0).toString());
+    }
+
+    @Test
+    void invalid() throws IOException {
+        Path file = temp();
+        Files.writeString(file, "not a snapshot");
+        assertThrows(IOException.class, () -> RopeSnapshot.read(file));
+
+        Path truncated = temp();
+        RopeSnapshot.write(truncated, List.of(new Rope("abc")));
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 4));
+        assertThrows(IOException.class, () -> RopeSnapshot.read(truncated));
+    }
+
+    private Path temp() throws IOException {
+        return Files.createTempFile(tmp, "rope", ".snapshot");
+    }
+
+}
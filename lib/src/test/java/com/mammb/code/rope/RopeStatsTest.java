@@ -0,0 +1,108 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RopeStatsTest {
+
+    @Test
+    void stats() {
+        // disable leaf merging to keep the shape of the concatenation
+        Rope rope = new Rope("", new LeafPolicy(0, 512), Balance.empty())
+            .concat(new Rope("aa"))
+            .concat(new Rope("bbb"))
+            .concat(new Rope("cccc"));
+
+        RopeStats stats = rope.stats();
+        assertEquals(9, stats.length());
+        assertEquals(2, stats.depth());
+        assertEquals(3, stats.leaves());
+        assertEquals(2, stats.branches());
+        // [2, 4) x 2, [4, 8) x 1
+        assertEquals(List.of(0, 0, 2, 1), stats.leafSizes());
+        assertEquals(1.0, stats.imbalance());
+        assertTrue(stats.retainedBytes() > 9);
+        assertEquals(0.0, stats.shared());
+
+        Rope degenerate = new Rope("", new LeafPolicy(0, 512), Balance.empty());
+        for (int i = 0; i < 16; i++) degenerate = degenerate.concat(new Rope("x"));
+        assertEquals(15.0 / 4, degenerate.stats().imbalance());
+    }
+
+    @Test
+    void shared() {
+        Rope rope = new Rope("0123456789\n".repeat(1000), new LeafPolicy(0, 32));
+        assertEquals(1.0, RopeStats.of(rope, rope).shared());
+
+        Rope edited = rope.insert(5000, "x");
+        double shared = RopeStats.of(edited, rope).shared();
+        // only the path to the edited leaf is new
+        assertTrue(shared > 0.9 && shared < 1.0, "shared " + shared);
+        assertEquals(0.0, RopeStats.of(edited, Rope.of("a")).shared());
+    }
+
+    @Test
+    void repeatedSubtrees() {
+        Rope rope = Rope.of("abcd");
+        long leafBytes = rope.stats().retainedBytes();
+        for (int i = 0; i < 28; i++) rope = rope.concat(rope);
+
+        // each distinct node once, not 2^28 leaves
+        RopeStats stats = rope.stats();
+        assertEquals(4 << 28, stats.length());
+        assertEquals(1, stats.leaves());
+        assertTrue(stats.branches() <= 28 * 2, "branches " + stats.branches());
+        assertTrue(stats.retainedBytes() < leafBytes + 56L * 28 * 2, "bytes " + stats.retainedBytes());
+    }
+
+    @Test
+    void events() throws Exception {
+        Path file = Files.createTempFile("rope", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.mammb.code.rope.Split").withThreshold(Duration.ZERO);
+            recording.enable("com.mammb.code.rope.Concat").withThreshold(Duration.ZERO);
+            recording.start();
+            Rope rope = new Rope("abc".repeat(1000), new LeafPolicy(0, 32));
+            rope.split(1500);
+            rope.concat(rope);
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        RecordedEvent split = events.stream()
+            .filter(e -> e.getEventType().getName().equals("com.mammb.code.rope.Split")).findFirst().orElseThrow();
+        assertEquals(3000, split.getInt("length"));
+        assertEquals(1500, split.getInt("index"));
+        RecordedEvent concat = events.stream()
+            .filter(e -> e.getEventType().getName().equals("com.mammb.code.rope.Concat")).findFirst().orElseThrow();
+        assertEquals(3000, concat.getInt("leftLength"));
+        assertEquals(3000, concat.getInt("rightLength"));
+    }
+
+}
@@ -17,6 +17,30 @@ package com.mammb.code.rope;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class RopeTest {
@@ -73,4 +97,722 @@ class RopeTest {
             rope.toString());
     }
 
+    @Test
+    void depthGrowsLogarithmically() {
+        for (int size = 1 << 10; size <= 1 << 22; size <<= 2) {
+            Rope rope = new Rope("x".repeat(size));
+            int leaves = (size + 511) / 512;
+            int log2 = 32 - Integer.numberOfLeadingZeros(leaves - 1);
+            assertEquals(log2, rope.root().depth());
+
+            Rope edited = rope
+                .insert(size / 2, "abc")
+                .delete(size / 3, size / 3 + 10)
+                .insert(size / 5, "z");
+            assertEquals(size - 6, edited.root().totalLength());
+            assertTrue(edited.root().depth() <= log2 + 4,
+                "depth " + edited.root().depth() + " for " + leaves + " leaves");
+        }
+    }
+
+    @Test
+    void charAt() {
+        Rope rope = new Rope()
+            .concat(new Rope("abc"))
+            .concat(new Rope("de"))
+            .concat(new Rope("f"))
+            .concat(new Rope("ghijk"));
+
+        assertEquals(11, rope.length());
+        assertEquals('a', rope.charAt(0));
+        assertEquals('e', rope.charAt(4));
+        assertEquals('f', rope.charAt(5));
+        assertEquals('k', rope.charAt(10));
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.charAt(11));
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.charAt(-1));
+    }
+
+    @Test
+    void charAtLargeRope() {
+        String text = "0123456789".repeat(1000);
+        Rope rope = new Rope(text);
+        for (int i = 0; i < text.length(); i += 7) {
+            assertEquals(text.charAt(i), rope.charAt(i));
+        }
+    }
+
+    @Test
+    void codePointAt() {
+        // U+1F600 is a surrogate pair
+        Rope rope = new Rope("a").concat(new Rope("\uD83D")).concat(new Rope("\uDE00b"));
+        assertEquals('a', rope.codePointAt(0));
+        assertEquals(0x1F600, rope.codePointAt(1));
+        assertEquals(0xDE00, rope.codePointAt(2));
+        assertEquals('b', rope.codePointAt(3));
+    }
+
+    @Test
+    void subSequence() {
+        Rope rope = new Rope("The quick brown ").concat(new Rope("fox jumps over the lazy dog."));
+
+        Rope sub = rope.subSequence(4, 19);
+        assertEquals("quick brown fox", sub.toString());
+        assertEquals("", rope.subSequence(3, 3).toString());
+        assertEquals(rope.toString(), rope.subSequence(0, rope.length()).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.subSequence(5, 4));
+    }
+
+    @Test
+    void subSequenceSharesStructure() {
+        Rope rope = new Rope("x".repeat(4096));
+        Rope sub = rope.subSequence(512, 4000);
+        assertEquals(3488, sub.length());
+        // the fully covered leaves are shared, not copied
+        assertSame(leafAt(rope.root(), 512), leafAt(sub.root(), 0));
+        assertSame(leafAt(rope.root(), 1024), leafAt(sub.root(), 512));
+    }
+
+    @Test
+    void regex() {
+        Rope rope = new Rope("The quick brown ").concat(new Rope("fox jumps over the lazy dog."));
+        Matcher matcher = Pattern.compile("f\\w+").matcher(rope);
+        assertTrue(matcher.find());
+        assertEquals(16, matcher.start());
+        assertEquals("fox", matcher.group());
+    }
+
+    @Test
+    void lines() {
+        Rope rope = new Rope("ab\ncd").concat(new Rope("\n\nef\n")).concat(new Rope("g"));
+
+        assertEquals(5, rope.lineCount());
+        assertEquals(0, rope.lineStart(0));
+        assertEquals(3, rope.lineStart(1));
+        assertEquals(6, rope.lineStart(2));
+        assertEquals(7, rope.lineStart(3));
+        assertEquals(10, rope.lineStart(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.lineStart(5));
+
+        assertEquals(0, rope.lineAt(0));
+        assertEquals(0, rope.lineAt(2));
+        assertEquals(1, rope.lineAt(3));
+        assertEquals(2, rope.lineAt(6));
+        assertEquals(4, rope.lineAt(11));
+
+        assertEquals("ab\n", rope.line(0).toString());
+        assertEquals("\n", rope.line(2).toString());
+        assertEquals("g", rope.line(4).toString());
+
+        assertEquals(1, new Rope().lineCount());
+        assertEquals("", new Rope().line(0).toString());
+    }
+
+    @Test
+    void linesAfterEdits() {
+        var random = new Random(1);
+        Rope rope = new Rope("line\n".repeat(500));
+        StringBuilder expected = new StringBuilder(rope.toString());
+        for (int i = 0; i < 300; i++) {
+            int at = random.nextInt(expected.length() + 1);
+            String str = (i % 3 == 0) ? "\n" : "x\ny";
+            rope = rope.insert(at, str);
+            expected.insert(at, str);
+            if (i % 2 == 0) {
+                int start = random.nextInt(expected.length() - 5);
+                rope = rope.delete(start, start + 5);
+                expected.delete(start, start + 5);
+            }
+        }
+        String text = expected.toString();
+        assertEquals(text.split("\n", -1).length, rope.lineCount());
+        for (int i = 0, line = 0; i <= text.length(); i++) {
+            assertEquals(line, rope.lineAt(i));
+            if (i == 0 || text.charAt(i - 1) == '\n') {
+                assertEquals(i, rope.lineStart(line));
+            }
+            if (i < text.length() && text.charAt(i) == '\n') line++;
+        }
+    }
+
+    @Test
+    void insertSplicesIntoLeaf() {
+        Rope rope = new Rope("abc").concat(new Rope("def"));
+        Rope inserted = rope.insert(3, "x").insert(1, "y");
+        assertEquals("aybcxdef", inserted.toString());
+        assertInstanceOf(Node.Leaf.class, inserted.root());
+    }
+
+    @Test
+    void concatMergesUndersizedLeaves() {
+        var policy = new LeafPolicy(4, 8);
+        Rope rope = new Rope("abc", policy).concat(new Rope("de")).concat(new Rope("fghij"));
+        assertEquals("abcdefghij", rope.toString());
+        // |abcde| |fghij|
+        var branch = (Node.Branch) rope.root();
+        assertEquals("abcde", ((Node.Leaf) branch.left()).text());
+        assertEquals("fghij", ((Node.Leaf) branch.right()).text());
+
+        // |ab| + |ij| are merged after the deletion
+        Rope deleted = rope.delete(2, 8);
+        assertEquals("abij", deleted.toString());
+        assertInstanceOf(Node.Leaf.class, deleted.root());
+    }
+
+    @Test
+    void keystrokes() {
+        // simulated typing session: 100k single-char inserts with occasional cursor jumps and backspaces
+        var random = new Random(1);
+        Rope rope = new Rope("x".repeat(64 * 1024));
+        int cursor = rope.length() / 2;
+        for (int i = 0; i < 100_000; i++) {
+            if (i % 500 == 0) cursor = random.nextInt(rope.length() + 1);
+            if (i % 10 == 9 && cursor > 0) {
+                rope = rope.delete(cursor - 1, cursor);
+                cursor--;
+            } else {
+                rope = rope.insert(cursor++, "a");
+            }
+        }
+        assertEquals(64 * 1024 + 80_000, rope.length());
+
+        int nodes = countNodes(rope.root());
+        double nodesPerKb = nodes / (rope.length() / 1024.0);
+        // a fully packed 512-char leaf tree has 4 nodes per KB
+        assertTrue(nodesPerKb < 6, "nodes per KB: " + nodesPerKb);
+    }
+
+    @Test
+    void chunks() {
+        Rope rope = new Rope("abc", new LeafPolicy(0, 512))
+            .concat(new Rope("de"))
+            .concat(new Rope("f"));
+        assertEquals(List.of("abc", "de", "f"), rope.chunks().map(CharSequence::toString).toList());
+        assertEquals(List.of("bc", "de"), rope.subSequence(1, 5).chunks().map(CharSequence::toString).toList());
+
+        List<CharSequence> chunks = new ArrayList<>();
+        rope.forEachChunk(chunks::add);
+        assertEquals(3, chunks.size());
+        assertEquals(0, new Rope().chunks().count());
+    }
+
+    @Test
+    void chunksOfSlice() throws IOException {
+        String text = "0123456789\n".repeat(100_000);
+        Rope rope = new Rope(text, new LeafPolicy(0, text.length())).split(11)[1];
+        Node.Slice slice = assertInstanceOf(Node.Slice.class, rope.root());
+        assertSame(text, slice.base());
+
+        // the slice is read in place, as a view of the string it shares
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        CharSequence chunk = rope.chunks().findFirst().orElseThrow();
+        assertTrue(threads.getCurrentThreadAllocatedBytes() - allocated < 64 * 1024);
+        assertInstanceOf(CharBuffer.class, chunk);
+        assertEquals(text.length() - 11, chunk.length());
+        assertEquals('0', chunk.charAt(0));
+
+        String expected = text.substring(11);
+        assertEquals(expected.chars().sum(), rope.chars().sum());
+        assertEquals(expected.indexOf("9\n0", 500), rope.indexOf("9\n0", 500));
+        assertEquals(expected.lastIndexOf("9\n0", 500), rope.lastIndexOf("9\n0", 500));
+        assertEquals(new Rope(expected), rope);
+        assertEquals('5', rope.cursor(5).current());
+        StringWriter writer = new StringWriter();
+        rope.writeTo(writer);
+        assertEquals(expected, writer.toString());
+    }
+
+    @Test
+    void chars() {
+        String text = "0123456789".repeat(200);
+        Rope rope = new Rope(text, new LeafPolicy(0, 7));
+        assertEquals(text, rope.chars()
+            .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append).toString());
+        assertEquals(text.chars().sum(), rope.chars().sum());
+        var spliterator = rope.chars().spliterator();
+        assertEquals(text.length(), spliterator.getExactSizeIfKnown());
+        assertTrue(spliterator.tryAdvance((int ch) -> assertEquals('0', ch)));
+    }
+
+    @Test
+    void codePoints() {
+        // U+1F600 split across two leaves
+        Rope rope = new Rope("a\uD83D", new LeafPolicy(0, 512)).concat(new Rope("\uDE00b\uD83D"));
+        assertArrayEquals(new int[] { 'a', 0x1F600, 'b', 0xD83D }, rope.codePoints().toArray());
+    }
+
+    @Test
+    void charsParallel() {
+        String text = "0123456789\n".repeat(300_000) + "\uD83D\uDE00".repeat(1_000);
+        Rope rope = Rope.of(text, new LeafPolicy(0, 64), Balance.wide(8));
+        assertEquals(text.chars().filter(c -> c == '\n').count(), rope.chars().parallel().filter(c -> c == '\n').count());
+        assertEquals(text.chars().asLongStream().sum(), rope.chars().parallel().asLongStream().sum());
+        assertEquals(text, rope.chars().parallel()
+            .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append).toString());
+
+        // the splits are exact, at leaf boundaries
+        var spliterator = rope.chars().spliterator();
+        var prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertEquals(text.length(), prefix.estimateSize() + spliterator.estimateSize());
+        assertEquals(0, prefix.estimateSize() % 64);
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+    }
+
+    @Test
+    void chunksParallel() {
+        String text = "abcdefghij".repeat(100_000);
+        Rope rope = Rope.of(text, new LeafPolicy(0, 100), Balance.depthBounded());
+        assertEquals(text, rope.chunks().parallel().collect(Collectors.joining()));
+        assertEquals(text.substring(5, 500_005), rope.subSequence(5, 500_005).chunks().parallel().collect(Collectors.joining()));
+        assertNull(new Rope("abc").chunks().spliterator().trySplit());
+    }
+
+    @Test
+    void reduce() {
+        record Words(long count, boolean empty, boolean startsInWord, boolean endsInWord) { }
+        Monoid<Words> words = Monoid.of(new Words(0, true, false, false), chunk -> {
+            long count = 0;
+            boolean inWord = false;
+            for (int i = 0; i < chunk.length(); i++) {
+                boolean letter = chunk.charAt(i) != ' ';
+                if (letter && !inWord) count++;
+                inWord = letter;
+            }
+            return new Words(count, chunk.isEmpty(), chunk.length() > 0 && chunk.charAt(0) != ' ', inWord);
+        }, (l, r) -> {
+            if (l.empty()) return r;
+            if (r.empty()) return l;
+            // a word split between the texts is counted once
+            long count = l.count() + r.count() - (l.endsInWord() && r.startsInWord() ? 1 : 0);
+            return new Words(count, false, l.startsInWord(), r.endsInWord());
+        });
+        var random = new Random(2);
+        StringBuilder sb = new StringBuilder();
+        long expected = 0;
+        while (sb.length() < 2_000_000) {
+            sb.append("w".repeat(1 + random.nextInt(700))).append(" ".repeat(1 + random.nextInt(2)));
+            expected++;
+        }
+        Rope rope = Rope.of(sb, new LeafPolicy(0, 64), Balance.weightBased());
+        assertEquals(expected, rope.reduce(words).count());
+        assertEquals(0, new Rope().reduce(words).count());
+        assertEquals(rope.lineCount() - 1L, (long) rope.reduce(
+            Monoid.of(0L, chunk -> chunk.chars().filter(c -> c == '\n').count(), Long::sum)));
+    }
+
+    @Test
+    void equalsAndHashCode() {
+        String text = "0123456789\n\u3042".repeat(5_000);
+        Rope a = new Rope(text);
+        Rope b = Rope.of(text, new LeafPolicy(0, 37), Balance.wide(5));
+        Rope c = new Rope(text.substring(0, 30_000), new LeafPolicy(0, 8), Balance.depthBounded())
+            .insert(0, "xyz").concat(new Rope(text.substring(30_000))).delete(0, 3);
+        for (Rope rope : List.of(b, c)) {
+            assertEquals(a, rope);
+            assertEquals(a.hashCode(), rope.hashCode());
+            assertEquals(a.digest(), rope.digest());
+        }
+        Rope edited = a.replace(40_000, 40_001, "x");
+        assertNotEquals(a, edited);
+        assertNotEquals(a.digest(), edited.digest());
+        assertNotEquals(a, a.delete(0, 1));
+        assertNotEquals(a, text);
+        assertEquals(new Rope(), new Rope("abc").delete(0, 3));
+
+        // the shared subtrees are not read
+        Rope x = a.insert(10, "a");
+        Rope y = a.insert(10, "a");
+        assertNotSame(x.root(), y.root());
+        assertEquals(x, y);
+    }
+
+    @Test
+    void writeToWriter() throws IOException {
+        String text = "0123456789".repeat(200);
+        var writer = new StringWriter();
+        new Rope(text, new LeafPolicy(0, 7)).writeTo(writer);
+        assertEquals(text, writer.toString());
+    }
+
+    @Test
+    void writeToChannel() throws IOException {
+        // U+1F600 split across leaves, larger than the encoding buffers
+        String text = "abc\uD83D\uDE00\u3042\n".repeat(30_000);
+        Rope rope = new Rope(text, new LeafPolicy(0, 4));
+        var out = new ByteArrayOutputStream();
+        long written = rope.writeTo(Channels.newChannel(out), StandardCharsets.UTF_8);
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+        assertEquals(out.size(), written);
+    }
+
+    @Test
+    void writeToFileChannel() throws IOException {
+        String text = "abc\uD83D\uDE00\u3042\n".repeat(30_000) + "\uD83D";
+        Rope rope = new Rope(text, new LeafPolicy(0, 5));
+        Path path = Files.createTempFile("rope", ".txt");
+        try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            rope.writeTo(channel, StandardCharsets.UTF_8);
+        } finally {
+            // the unpaired surrogate at the end is replaced
+            assertEquals(text.substring(0, text.length() - 1) + "?", Files.readString(path));
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void open() throws IOException {
+        // multi-byte chars across the region boundaries, and a malformed byte
+        String text = "abc\uD83D\uDE00\u3042\n".repeat(10_000);
+        Path path = Files.createTempFile("rope", ".txt");
+        try {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            bytes[100] = (byte) 0xff;
+            Files.write(path, bytes);
+            String expected = new String(bytes, StandardCharsets.UTF_8);
+
+            Rope rope = Rope.open(path, StandardCharsets.UTF_8);
+            assertInstanceOf(Node.Mapped.class, leafAt(rope.root(), 0));
+            assertEquals(expected.length(), rope.length());
+            assertEquals(expected, rope.toString());
+            assertEquals(expected.charAt(60_001), rope.charAt(60_001));
+            assertEquals(10_001, rope.lineCount());
+            assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, rope.utf8Length());
+            assertEquals(expected.codePointCount(0, expected.length()), rope.codePointCount());
+            assertEquals(expected.substring(0, 50_000).getBytes(StandardCharsets.UTF_8).length, rope.charToByte(50_000));
+            assertEquals(expected.indexOf('\n', 50_000) + 1, rope.lineStart(rope.lineAt(50_000) + 1));
+            assertEquals(new Rope(expected), rope);
+            assertEquals(new Rope(expected).digest(), rope.digest());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void openUtf16() throws IOException {
+        String text = "abc\uD83D\uDE00\u3042\n".repeat(5_000);
+        for (Charset charset : List.of(StandardCharsets.UTF_16BE, StandardCharsets.UTF_16LE)) {
+            Path path = Files.createTempFile("rope", ".txt");
+            try {
+                Files.writeString(path, text, charset);
+                Rope rope = Rope.open(path, charset);
+                assertEquals(text, rope.toString());
+                for (int i = 0; i < text.length(); i += 997) {
+                    assertEquals(text.charAt(i), rope.charAt(i));
+                }
+                assertEquals(text.indexOf('\n', 20_000) + 1, rope.lineStart(rope.lineAt(20_000) + 1));
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void openWithByteOrderMark() throws IOException {
+        String text = "abc\uD83D\uDE00\u3042\n".repeat(5_000);
+        Path path = Files.createTempFile("rope", ".txt");
+        try {
+            // the encoder of UTF-16 writes a big-endian mark
+            Files.writeString(path, text, StandardCharsets.UTF_16);
+            Rope rope = Rope.open(path, StandardCharsets.UTF_16);
+            assertEquals(text, rope.toString());
+            assertEquals(text.charAt(20_001), rope.charAt(20_001));
+
+            byte[] le = text.getBytes(StandardCharsets.UTF_16LE);
+            byte[] marked = new byte[le.length + 2];
+            marked[0] = (byte) 0xff;
+            marked[1] = (byte) 0xfe;
+            System.arraycopy(le, 0, marked, 2, le.length);
+            Files.write(path, marked);
+            assertEquals(text, Rope.open(path, StandardCharsets.UTF_16).toString());
+
+            Files.writeString(path, "a\u3042\n".repeat(10_000), Charset.forName("ISO-2022-JP"));
+            assertThrows(IllegalArgumentException.class, () -> Rope.open(path, Charset.forName("ISO-2022-JP")));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void openSplicesTyping() throws IOException {
+        String text = "\u3042bc\n".repeat(20_000);
+        Path path = Files.createTempFile("rope", ".txt");
+        try {
+            Files.writeString(path, text, StandardCharsets.UTF_8);
+            Rope rope = Rope.open(path, StandardCharsets.UTF_8);
+            Rope typed = rope;
+            StringBuilder expected = new StringBuilder(text);
+            for (int i = 0; i < 100; i++) {
+                typed = typed.insert(30_000 + i, "x");
+                expected.insert(30_000 + i, "x");
+            }
+            assertEquals(expected.toString(), typed.toString());
+            assertEquals(new Rope(expected.toString()).digest(), typed.digest());
+            // the typed text is a leaf between the parts of the region, which stay mapped
+            assertInstanceOf(Node.Mapped.class, leafAt(typed.root(), 29_999));
+            assertInstanceOf(Node.Leaf.class, leafAt(typed.root(), 30_050));
+            assertInstanceOf(Node.Mapped.class, leafAt(typed.root(), 30_100));
+            assertTrue(typed.root().depth() <= rope.root().depth() + 2);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void openDecodesRegionOnce() throws IOException {
+        Path path = Files.createTempFile("rope", ".txt");
+        try {
+            Files.writeString(path, "\u3042\n".repeat(1_000), StandardCharsets.UTF_8);
+            Node.Mapped mapped = (Node.Mapped) leafAt(Rope.open(path, StandardCharsets.UTF_8).root(), 0);
+            assertSame(mapped.decode(), mapped.decode());
+            assertEquals('\u3042', mapped.charAt(1_000));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void openEdits() throws IOException {
+        String text = "0123456789\n".repeat(10_000) + "\u00e9";
+        Path path = Files.createTempFile("rope", ".txt");
+        try {
+            Files.writeString(path, text, StandardCharsets.ISO_8859_1);
+            Rope rope = Rope.open(path, StandardCharsets.ISO_8859_1);
+            assertTrue(((Node.Mapped) leafAt(rope.root(), 0)).latin1());
+
+            Rope edited = rope.insert(50_000, "abc").delete(20_000, 20_010);
+            String expected = new StringBuilder(text).insert(50_000, "abc").delete(20_000, 20_010).toString();
+            assertEquals(expected, edited.toString());
+            assertEquals(expected.charAt(expected.length() - 1), edited.charAt(edited.length() - 1));
+            // the untouched regions are shared, and split regions stay in the file
+            assertSame(leafAt(rope.root(), 0), leafAt(edited.root(), 0));
+            assertInstanceOf(Node.Mapped.class, leafAt(edited.root(), 20_001));
+            assertInstanceOf(Node.Mapped.class, leafAt(edited.root(), 19_999));
+            assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, edited.utf8Length());
+            assertEquals(new Rope(expected).digest(), edited.digest());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void openSplitsSurrogatePair() throws IOException {
+        String text = "a\uD83D\uDE00b".repeat(1000);
+        Path path = Files.createTempFile("rope", ".txt");
+        try {
+            Files.writeString(path, text, StandardCharsets.UTF_8);
+            Rope rope = Rope.open(path, StandardCharsets.UTF_8);
+            Rope[] split = rope.split(2);
+            assertEquals(text.substring(0, 2), split[0].toString());
+            assertEquals(text.substring(2), split[1].toString());
+            assertEquals(text.substring(1, 3000), rope.subSequence(1, 3000).toString());
+            assertEquals(new Rope(text.substring(1, 3000)).digest(), rope.subSequence(1, 3000).digest());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void openEmpty() throws IOException {
+        Path path = Files.createTempFile("rope", ".txt");
+        try {
+            Rope rope = Rope.open(path, StandardCharsets.UTF_8);
+            assertEquals(0, rope.length());
+            assertEquals("a", rope.insert(0, "a").toString());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void utf8AndCodePoints() {
+        // 1, 2, 3 and 4 byte chars, across small leaves
+        String text = "a\u00e9\u3042\uD83D\uDE00\n".repeat(300);
+        for (Balance balance : new Balance[] { Balance.weightBased(), Balance.wide(4) }) {
+            Rope rope = new Rope(text, new LeafPolicy(0, 7), balance);
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, rope.utf8Length());
+            assertEquals(text.codePointCount(0, text.length()), rope.codePointCount());
+            for (int i = 0; i <= text.length(); i++) {
+                int start = Character.isLowSurrogate(i < text.length() ? text.charAt(i) : 0) ? i - 1 : i;
+                long bytes = text.substring(0, start).getBytes(StandardCharsets.UTF_8).length;
+                assertEquals(bytes, rope.charToByte(i));
+                assertEquals(start, rope.byteToChar(bytes));
+                assertEquals(text.codePointCount(0, start), rope.charToCodePoint(i));
+                assertEquals(start, rope.codePointToChar(text.codePointCount(0, start)));
+            }
+        }
+    }
+
+    @Test
+    void byteToCharInsideChar() {
+        Rope rope = new Rope("a\u3042\uD83D\uDE00b");
+        assertEquals(1, rope.byteToChar(2));
+        assertEquals(1, rope.byteToChar(3));
+        assertEquals(2, rope.byteToChar(4));
+        assertEquals(2, rope.byteToChar(7));
+        assertEquals(4, rope.byteToChar(8));
+        assertEquals(5, rope.byteToChar(9));
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.byteToChar(10));
+    }
+
+    @Test
+    void surrogatePairsAfterEdits() {
+        String pair = "\uD83D\uDE00";
+        var random = new Random(5);
+        Rope rope = new Rope("", new LeafPolicy(0, 8));
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 3_000; i++) {
+            int index = random.nextInt(expected.length() + 1);
+            if (expected.length() > 20 && random.nextInt(3) == 0) {
+                // deletes may split pairs, and join the halves again
+                int end = Math.min(expected.length(), index + random.nextInt(5));
+                rope = rope.delete(index, end);
+                expected.delete(index, end);
+            } else {
+                String str = switch (random.nextInt(4)) {
+                    case 0 -> pair;
+                    case 1 -> pair.substring(0, 1);
+                    case 2 -> pair.substring(1);
+                    default -> "ab\u3042";
+                };
+                rope = rope.insert(index, str);
+                expected.insert(index, str);
+            }
+            String text = expected.toString();
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, rope.utf8Length());
+            assertEquals(text.codePointCount(0, text.length()), rope.codePointCount());
+        }
+        assertEquals(expected.toString(), rope.toString());
+    }
+
+    @Test
+    void lineColumns() {
+        Rope rope = new Rope("abc\n\u3042\u3044\uD83D\uDE00x\n\u00e9\n", new LeafPolicy(0, 3));
+        // line 1: [\u3042 (3)] [\u3044 (3)] [U+1F600 (4)] [x (1)] [\n (1)]
+        assertEquals(0, rope.utf8Column(1, 0));
+        assertEquals(6, rope.utf8Column(1, 2));
+        assertEquals(10, rope.utf8Column(1, 4));
+        assertEquals(11, rope.utf8Column(1, 5));
+        assertEquals(12, rope.utf8Column(1, 6));
+        assertEquals(2, rope.utf16Column(1, 6));
+        assertEquals(4, rope.utf16Column(1, 10));
+        assertEquals(5, rope.utf16Column(1, 11));
+        assertEquals(2, rope.utf8Column(2, 1));
+        assertEquals(1, rope.utf16Column(2, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.utf8Column(1, 7));
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.utf16Column(0, 5));
+    }
+
+    @Test
+    void applyEdits() {
+        var random = new Random(7);
+        for (Balance balance : List.of(Balance.weightBased(), Balance.depthBounded(), Balance.wide(8))) {
+            String text = "0123456789\n".repeat(2_000);
+            Rope rope = new Rope(text, new LeafPolicy(0, 64), balance);
+            StringBuilder expected = new StringBuilder(text);
+            for (int round = 0; round < 20; round++) {
+                // sorted and non-overlapping, in the offsets of the rope before the batch
+                List<Edit> edits = new ArrayList<>();
+                int pos = 0;
+                while (true) {
+                    pos += random.nextInt(2_000);
+                    int end = pos + random.nextInt(200);
+                    if (end > rope.length()) break;
+                    edits.add(new Edit(pos, end, "x".repeat(random.nextInt(100))));
+                    pos = end;
+                }
+                for (int i = edits.size() - 1; i >= 0; i--) {
+                    Edit edit = edits.get(i);
+                    expected.replace(edit.start(), edit.end(), edit.text());
+                }
+                rope = rope.apply(edits);
+                assertEquals(expected.toString(), rope.toString());
+                assertEquals(expected.chars().filter(c -> c == '\n').count(), rope.lineCount() - 1);
+            }
+        }
+    }
+
+    @Test
+    void applyInsertsAtSameIndex() {
+        Rope rope = new Rope("abcdef", new LeafPolicy(0, 3));
+        assertEquals("a12bc3d", rope.apply(List.of(
+            Edit.insert(1, "1"), Edit.insert(1, "2"), Edit.insert(3, "3"), Edit.delete(4, 6))).toString());
+        assertEquals("xyz", rope.apply(List.of(Edit.replace(0, 6, "xyz"))).toString());
+        assertSame(rope, rope.apply(List.of()));
+    }
+
+    @Test
+    void applySharesUntouchedSubtrees() {
+        Rope rope = new Rope("x".repeat(512 * 64));
+        Rope edited = rope.apply(List.of(Edit.insert(10, "a"), Edit.delete(20, 30)));
+        Node.Branch before = (Node.Branch) rope.root();
+        Node.Branch after = (Node.Branch) edited.root();
+        assertSame(before.right(), after.right());
+        assertEquals(rope.length() - 9, edited.length());
+    }
+
+    @Test
+    void applyKeepsUntouchedChildren() {
+        // undersized leaves, as left by a smaller policy
+        List<Node> leaves = new ArrayList<>();
+        for (int i = 0; i < 64; i++) leaves.add(new Node.Leaf("abcd"));
+        Balance balance = Balance.wide(8);
+        Rope rope = new Rope(balance.apply(Node.of(leaves)), new LeafPolicy(16, 64), balance);
+        Rope edited = rope.apply(List.of(Edit.replace(130, 131, "x"), Edit.insert(134, "y")));
+        assertEquals(new StringBuilder(rope.toString()).insert(134, "y").replace(130, 131, "x").toString(),
+            edited.toString());
+
+        // only the leaves next to the rewritten ones are merged, the other siblings are kept
+        Set<Node> after = nodes(edited.root(), Collections.newSetFromMap(new IdentityHashMap<>()));
+        assertTrue(leaves.stream().filter(after::contains).count() >= 56);
+    }
+
+    private static Set<Node> nodes(Node node, Set<Node> nodes) {
+        nodes.add(node);
+        for (int i = 0; i < node.childCount(); i++) nodes(node.child(i), nodes);
+        return nodes;
+    }
+
+    @Test
+    void applyValidation() {
+        Rope rope = new Rope("abcdef");
+        assertThrows(IllegalArgumentException.class, () -> rope.apply(List.of(Edit.delete(2, 4), Edit.delete(3, 5))));
+        assertThrows(IllegalArgumentException.class, () -> rope.apply(List.of(Edit.insert(4, "a"), Edit.insert(2, "b"))));
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.apply(List.of(Edit.delete(2, 7))));
+        assertThrows(IllegalArgumentException.class, () -> Edit.delete(3, 2));
+    }
+
+    @Test
+    void replace() {
+        Rope rope = new Rope("Hello, world!", new LeafPolicy(0, 4));
+        assertEquals("Hello, rope!", rope.replace(7, 12, "rope").toString());
+        assertEquals("Hello, world!", rope.replace(0, 0, "").toString());
+        // a surrogate pair formed across the replaced range
+        Rope pair = new Rope("a\uD83Dxyz\uDE00b", new LeafPolicy(0, 2)).replace(2, 5, "");
+        assertEquals(3, pair.codePointCount());
+        assertEquals(6, pair.utf8Length());
+    }
+
+    private static int countNodes(Node node) {
+        return switch (node) {
+            case Node.Leaf _ -> 1;
+            case Node.Slice _ -> 1;
+            case Node.Mapped _ -> 1;
+            case Node.Branch branch -> 1 + countNodes(branch.left()) + countNodes(branch.right());
+            case Node.Wide wide -> 1 + Arrays.stream(wide.children()).mapToInt(RopeTest::countNodes).sum();
+        };
+    }
+
+    private static Node leafAt(Node node, int index) {
+        while (node instanceof Node.Branch branch) {
+            if (index < branch.weight()) {
+                node = branch.left();
+            } else {
+                index -= branch.weight();
+                node = branch.right();
+            }
+        }
+        return node;
+    }
+
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTest {
+
+    @Test
+    void indexOf() {
+        var random = new Random(11);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) sb.append((char) ('a' + random.nextInt(3)));
+        String text = sb.toString();
+        for (int leafSize : new int[] { 1, 3, 7, 64 }) {
+            Rope rope = new Rope(text, new LeafPolicy(0, leafSize));
+            for (int i = 0; i < 300; i++) {
+                // patterns of up to twice the leaf size, mostly found across leaves
+                int from = random.nextInt(text.length());
+                String pattern = text.substring(from, Math.min(text.length(), from + 1 + random.nextInt(12)));
+                int index = random.nextInt(text.length() + 2) - 1;
+                assertEquals(text.indexOf(pattern), rope.indexOf(pattern));
+                assertEquals(text.indexOf(pattern, index), rope.indexOf(pattern, index), pattern + " " + index);
+                assertEquals(text.lastIndexOf(pattern), rope.lastIndexOf(pattern));
+                assertEquals(text.lastIndexOf(pattern, index), rope.lastIndexOf(pattern, index), pattern + " " + index);
+            }
+        }
+    }
+
+    @Test
+    void indexOfEdgeCases() {
+        Rope rope = new Rope("abcab", new LeafPolicy(0, 2));
+        assertEquals(-1, rope.indexOf("abcabc"));
+        assertEquals(-1, new Rope().indexOf("a"));
+        assertEquals(3, rope.indexOf("", 3));
+        assertEquals(5, rope.indexOf("", 9));
+        assertEquals(5, rope.lastIndexOf(""));
+        assertEquals(-1, rope.lastIndexOf("a", -1));
+        assertEquals(3, rope.lastIndexOf("ab", 9));
+        assertEquals(0, rope.lastIndexOf("abcab"));
+    }
+
+    @Test
+    void findAll() {
+        Rope rope = new Rope("aaaa-aaa", new LeafPolicy(0, 3));
+        assertArrayEquals(new int[] { 0, 2, 5 }, rope.findAll("aa").toArray());
+        assertArrayEquals(new int[] { 0, 2, 5 }, rope.findAllParallel("aa").toArray());
+        assertEquals(0, rope.findAll("b").count());
+        assertEquals(0, rope.findAll("a").findFirst().orElseThrow());
+        assertThrows(IllegalArgumentException.class, () -> rope.findAll(""));
+    }
+
+    @Test
+    void findAllParallel() {
+        // overlapping candidates at the boundaries of the subtrees searched in parallel
+        String text = "ab".repeat(700_000) + "xaaa" + "a".repeat(1_000_000);
+        Rope rope = Rope.of(text, new LeafPolicy(0, 100), Balance.weightBased());
+        for (String pattern : List.of("ab", "aa", "bab", "xaa", "a".repeat(150))) {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = text.indexOf(pattern); i >= 0; i = text.indexOf(pattern, i + pattern.length())) {
+                expected.add(i);
+            }
+            assertEquals(expected, rope.findAll(pattern).boxed().toList(), pattern);
+            assertEquals(expected, rope.findAllParallel(pattern).boxed().toList(), pattern);
+        }
+    }
+
+    @Test
+    void matcher() {
+        String text = "foo 12 bar 345\nbaz 6789 ".repeat(1_000);
+        Rope rope = new Rope(text, new LeafPolicy(0, 16));
+        Matcher expected = Pattern.compile("\\d+").matcher(text);
+        Matcher actual = rope.matcher(Pattern.compile("\\d+"));
+        while (expected.find()) {
+            assertTrue(actual.find());
+            assertEquals(expected.start(), actual.start());
+            assertEquals(expected.group(), actual.group());
+        }
+        assertFalse(actual.find());
+        // backward lookups and jumps
+        assertTrue(rope.matcher(Pattern.compile("(?<=bar )\\d+$", Pattern.MULTILINE)).find(100));
+        assertEquals(text.length() - 5, rope.matcher(Pattern.compile("6789 $")).results().findFirst().orElseThrow().start());
+    }
+
+}
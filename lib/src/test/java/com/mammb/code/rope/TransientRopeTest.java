@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.rope;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransientRopeTest {
+
+    @Test
+    void edits() {
+        var random = new Random(3);
+        Rope rope = new Rope("0123456789\n".repeat(500), new LeafPolicy(0, 16));
+        TransientRope edits = rope.toTransient();
+        StringBuilder expected = new StringBuilder(rope);
+        int cursor = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (i % 200 == 0) cursor = random.nextInt(expected.length() + 1);
+            switch (random.nextInt(5)) {
+                case 0 -> {
+                    int end = Math.min(expected.length(), cursor + random.nextInt(40));
+                    edits.delete(cursor, end);
+                    expected.delete(cursor, end);
+                }
+                case 1 -> {
+                    if (cursor > 0) {
+                        edits.delete(cursor - 1, cursor);
+                        expected.delete(cursor - 1, cursor);
+                        cursor--;
+                    }
+                }
+                default -> {
+                    String str = (i % 7 == 0) ? "\uD83D\uDE00" : "a\n".repeat(random.nextInt(3) + 1);
+                    edits.insert(cursor, str);
+                    expected.insert(cursor, str);
+                    cursor += str.length();
+                }
+            }
+            assertEquals(expected.length(), edits.length());
+            if (i % 1000 == 0) {
+                int index = random.nextInt(expected.length());
+                assertEquals(expected.charAt(index), edits.charAt(index));
+                Rope frozen = edits.freeze();
+                assertEquals(expected.toString(), frozen.toString());
+            }
+        }
+        Rope frozen = edits.freeze();
+        String text = expected.toString();
+        assertEquals(text, frozen.toString());
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, frozen.utf8Length());
+        assertEquals(text.codePointCount(0, text.length()), frozen.codePointCount());
+        assertEquals(text.split("\n", -1).length, frozen.lineCount());
+    }
+
+    @Test
+    void frozenRopeIsImmutable() {
+        Rope rope = new Rope("hello world");
+        TransientRope edits = rope.toTransient().insert(5, ",");
+        Rope frozen = edits.freeze();
+        assertSame(frozen, edits.freeze());
+        edits.replace(0, 5, "HELLO").append("!");
+        assertEquals("hello world", rope.toString());
+        assertEquals("hello, world", frozen.toString());
+        assertEquals("HELLO, world!", edits.freeze().toString());
+    }
+
+    @Test
+    void largeInserts() {
+        TransientRope edits = new Rope().toTransient();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            String str = String.valueOf((char) ('a' + i % 26)).repeat(i * 50);
+            edits.append(str);
+            expected.append(str);
+        }
+        edits.insert(3, "x");
+        expected.insert(3, "x");
+        assertEquals(expected.toString(), edits.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> edits.insert(expected.length() + 1, "a"));
+        assertThrows(IndexOutOfBoundsException.class, () -> edits.delete(2, expected.length() + 1));
+    }
+
+}
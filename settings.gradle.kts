@@ -4,3 +4,4 @@ plugins {
 
 rootProject.name = "rope"
 include("lib")
+include("bench")